@@ -0,0 +1,223 @@
+import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+// Benchmarks for the parse and insert hot paths, run with the project's jars on the classpath:
+//   java ScraperBenchmark [sections...]        (default 1000 10000 50000)
+//
+// Every benchmark reports time per section and bytes allocated per section, measured with the
+// thread allocation counter the same way JMH's -prof gc does.
+//
+// Fixtures are built from responses recorded in ARCHIVE_DIR when there are any, repeated with new
+// CRNs until the fixture is big enough, otherwise from synthetic sections shaped like real ones.
+// The insert benchmark only runs when BENCH_DB_URL points at a scratch MySQL database; it creates
+// and drops its own ClassRows and dictionary tables there, so never point it at the real database.
+public class ScraperBenchmark {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    interface Benchmark {
+        void run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = { 1000, 10000, 50000 };
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) { sizes[i] = Integer.parseInt(args[i]); }
+        }
+
+        List<JSONObject> recorded = recordedSections();
+        System.out.println(recorded.isEmpty() ? "Using synthetic fixtures" :
+                "Using fixtures built from " + recorded.size() + " recorded sections");
+        System.out.println(String.format("%-22s %8s %14s %16s", "benchmark", "sections", "ns/section", "bytes/section"));
+
+        for (int size : sizes) {
+            String fixture = fixture(recorded, size);
+            List<JSONObject> sections = new ArrayList<>();
+            SearchResultsParser.parse(new StringReader(fixture), sections::add);
+
+            measure("parseSchedule", size, () -> {
+                for (JSONObject section : sections) {
+                    Main.parseSchedule((JSONArray) section.get("meetingsFaculty"));
+                }
+            });
+            measure("parseSection", size, () -> {
+                for (JSONObject section : sections) {
+                    Main.parseSection("202036", section);
+                }
+            });
+            measure("parseClasses", size, () -> {
+                Main.parseClasses(new StringReader(fixture), "202036", section -> { });
+            });
+
+            String url = System.getenv("BENCH_DB_URL");
+            if (url != null && !url.isEmpty()) {
+                List<Section> parsed = new ArrayList<>();
+                for (JSONObject section : sections) { parsed.add(Main.parseSection("202036", section)); }
+                benchmarkInsert(url, parsed);
+            }
+        }
+    }
+
+    // Run the benchmark until warm, then report the average of the measured iterations
+    private static void measure(String name, int sections, Benchmark benchmark) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            benchmark.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            benchmark.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        long operations = (long) sections * MEASURED_ITERATIONS;
+        System.out.println(String.format("%-22s %8d %14.1f %16.1f", name, sections,
+                elapsed / (double) operations, bytes / (double) operations));
+    }
+
+    // Upsert every section into a scratch ClassRows table. Seat counts change every iteration so the
+    // change snapshot doesn't skip the rows.
+    private static void benchmarkInsert(String url, List<Section> sections) throws Exception {
+        try (Connection conn = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") +
+                "rewriteBatchedStatements=true", System.getenv("BENCH_DB_USER"), System.getenv("BENCH_DB_PASS"))) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS ClassRows");
+                stmt.execute("CREATE TABLE ClassRows (term VARCHAR(6) NOT NULL, crn INT NOT NULL, " +
+                        "subjectId INT, courseNumber INT, courseId INT, creditHours INT, titleId INT, " +
+                        "capacity INT, currentCapacity INT, capacityFull BOOLEAN, instructorId INT, " +
+                        "schedule VARCHAR(255), meetingTimes VARBINARY(255), campusId INT, PRIMARY KEY (term, crn))");
+                for (Dictionary dictionary : Dictionary.ALL) {
+                    stmt.execute("DROP TABLE IF EXISTS " + dictionary.getTable());
+                    stmt.execute("CREATE TABLE " + dictionary.getTable() + " (id INT NOT NULL AUTO_INCREMENT " +
+                            "PRIMARY KEY, value VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL, " +
+                            "UNIQUE KEY (value))");
+                    // The ids cached by the previous size point into the dropped table
+                    dictionary.reset();
+                }
+            }
+
+            int[] iteration = { 0 };
+            measure("ClassWriter.write", sections.size(), () -> {
+                iteration[0]++;
+                try (ClassWriter writer = new ClassWriter(conn, 500, new SectionSnapshot())) {
+                    for (Section s : sections) {
+                        writer.write(new Section(s.getTerm(), s.getCrn(), s.getSubject(), s.getCourseNumber(),
+                                s.getSubjectCourse(), s.getCreditHours(), s.getTitle(), s.getCapacity(),
+                                iteration[0] % Math.max(1, s.getCapacity()), s.isCapacityFull(), s.getInstructor(),
+                                s.getSchedule(), s.getMeetingTimes(), s.getCampus()));
+                    }
+                }
+            });
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE ClassRows");
+                for (Dictionary dictionary : Dictionary.ALL) {
+                    stmt.execute("DROP TABLE " + dictionary.getTable());
+                }
+            }
+        }
+    }
+
+    // Sections from every response archived in ARCHIVE_DIR
+    private static List<JSONObject> recordedSections() throws Exception {
+        List<JSONObject> sections = new ArrayList<>();
+        String dir = System.getenv("ARCHIVE_DIR");
+        if (dir == null || dir.isEmpty() || !new File(dir).isDirectory()) { return sections; }
+
+        new ResponseArchive(new File(dir), Long.MAX_VALUE).replay((entry, data) ->
+                SearchResultsParser.parse(data, sections::add));
+        return sections;
+    }
+
+    // A searchResults response with the given number of sections
+    @SuppressWarnings("unchecked")
+    private static String fixture(List<JSONObject> recorded, int size) {
+        Random random = new Random(size);
+        StringBuilder json = new StringBuilder(size * 2048);
+        json.append("{\"success\":true,\"totalCount\":").append(size).append(",\"data\":[");
+        for (int i = 0; i < size; i++) {
+            JSONObject section = new JSONObject();
+            section.putAll(recorded.isEmpty() ? syntheticSection(random) : recorded.get(i % recorded.size()));
+            section.put("courseReferenceNumber", Integer.toString(10000 + i));
+            if (i > 0) { json.append(','); }
+            json.append(section.toJSONString());
+        }
+        json.append("],\"pageOffset\":0,\"pageMaxSize\":").append(size).append('}');
+        return json.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject syntheticSection(Random random) {
+        String[] subjects = { "CIS", "MATH", "ENG", "BIO", "CHEM", "PHYS", "HIST", "PSY" };
+        String subject = subjects[random.nextInt(subjects.length)];
+        String courseNumber = Integer.toString(1000 + random.nextInt(3000));
+
+        JSONObject section = new JSONObject();
+        section.put("id", (long) random.nextInt(1000000));
+        section.put("term", "202036");
+        section.put("termDesc", "2020 Fall");
+        section.put("subject", subject);
+        section.put("subjectDescription", subject + " Department");
+        section.put("courseNumber", courseNumber);
+        section.put("subjectCourse", subject + courseNumber);
+        section.put("courseTitle", "Course Title " + random.nextInt(500));
+        section.put("campusDescription", random.nextBoolean() ? "Main" : "Online");
+        section.put("scheduleTypeDescription", "Lecture");
+        section.put("creditHourLow", (long) (1 + random.nextInt(4)));
+        long capacity = 20 + random.nextInt(200);
+        section.put("maximumEnrollment", capacity);
+        section.put("enrollment", capacity / 2);
+        section.put("seatsAvailable", capacity / 2);
+        section.put("waitCapacity", 0L);
+        section.put("openSection", Boolean.TRUE);
+
+        JSONArray faculty = new JSONArray();
+        JSONObject instructor = new JSONObject();
+        instructor.put("displayName", "Instructor, " + random.nextInt(2000));
+        instructor.put("emailAddress", "instructor@temple.edu");
+        instructor.put("primaryIndicator", Boolean.TRUE);
+        faculty.add(instructor);
+        section.put("faculty", faculty);
+
+        JSONArray meetings = new JSONArray();
+        for (int m = 0; m < 1 + random.nextInt(2); m++) {
+            int start = 8 * 60 + random.nextInt(12) * 50;
+            JSONObject time = new JSONObject();
+            time.put("meetingType", "CLAS");
+            time.put("beginTime", String.format("%02d%02d", start / 60, start % 60));
+            time.put("endTime", String.format("%02d%02d", (start + 50) / 60, (start + 50) % 60));
+            time.put("building", "BLDG");
+            time.put("room", Integer.toString(100 + random.nextInt(300)));
+            time.put("monday", random.nextBoolean());
+            time.put("tuesday", random.nextBoolean());
+            time.put("wednesday", random.nextBoolean());
+            time.put("thursday", random.nextBoolean());
+            time.put("friday", random.nextBoolean());
+            time.put("saturday", Boolean.FALSE);
+            time.put("sunday", Boolean.FALSE);
+            JSONObject meeting = new JSONObject();
+            meeting.put("meetingTime", time);
+            meetings.add(meeting);
+        }
+        section.put("meetingsFaculty", meetings);
+        return section;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj;
+
+import java.util.Set;
+
+import com.mysql.cj.util.ConcurrentLRUCache;
+
+/**
+ * Per connection 'parseInfoCacheFactory' backed by a {@link ConcurrentLRUCache}, so lookups don't synchronize on the connection.
+ */
+public class ConcurrentLRUFactory implements CacheAdapterFactory<String, ParseInfo> {
+
+    public CacheAdapter<String, ParseInfo> getInstance(Object syncMutex, String url, int cacheMaxSize, int maxKeySize) {
+
+        return new ConcurrentLRU(cacheMaxSize, maxKeySize);
+    }
+
+    class ConcurrentLRU implements CacheAdapter<String, ParseInfo> {
+        private final int cacheSqlLimit;
+        private final ConcurrentLRUCache<String, ParseInfo> cache;
+
+        protected ConcurrentLRU(int cacheMaxSize, int maxKeySize) {
+            this.cacheSqlLimit = maxKeySize;
+            this.cache = new ConcurrentLRUCache<>(cacheMaxSize);
+        }
+
+        public ParseInfo get(String key) {
+            if (key == null || key.length() > this.cacheSqlLimit) {
+                return null;
+            }
+
+            return this.cache.get(key);
+        }
+
+        public void put(String key, ParseInfo value) {
+            if (key == null || key.length() > this.cacheSqlLimit) {
+                return;
+            }
+
+            this.cache.put(key, value);
+        }
+
+        public void invalidate(String key) {
+            if (key != null) {
+                this.cache.invalidate(key);
+            }
+        }
+
+        public void invalidateAll(Set<String> keys) {
+            this.cache.invalidateAll(keys);
+        }
+
+        public void invalidateAll() {
+            this.cache.invalidateAll();
+        }
+
+        public ConcurrentLRUCache<String, ParseInfo> getCache() {
+            return this.cache;
+        }
+    }
+}
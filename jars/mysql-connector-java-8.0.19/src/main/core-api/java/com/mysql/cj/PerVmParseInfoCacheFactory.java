@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Objects;
+import java.util.Set;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.PropertySet;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.exceptions.ExceptionFactory;
+import com.mysql.cj.exceptions.WrongArgumentException;
+import com.mysql.cj.util.ConcurrentLRUCache;
+
+/**
+ * 'parseInfoCacheFactory' that shares one cache of {@link ParseInfo}s between all connections of the JVM, so a pool of connections parses each
+ * statement once and keeps one copy of it.
+ * 
+ * How a statement is parsed depends on the connection as well as on the SQL, so entries are keyed by the SQL together with the character encoding,
+ * the identifier quote character (ANSI_QUOTES), whether NO_BACKSLASH_ESCAPES is set, 'rewriteBatchedStatements' and
+ * 'dontCheckOnDuplicateKeyUpdateInSQL', read from the connection on every lookup. Connections whose settings differ never share entries.
+ * 
+ * The cache is bounded by an estimate of the memory its entries take, see 'parseInfoCacheMaxMemory', which is taken from the first connection that uses
+ * the cache. Entries are held through soft references, so the garbage collector can also release them when the JVM runs low on memory. The per
+ * connection 'prepStmtCacheSize' doesn't apply, 'prepStmtCacheSqlLimit' still does.
+ */
+public class PerVmParseInfoCacheFactory implements CacheAdapterFactory<String, ParseInfo> {
+
+    private static final int NO_BACKSLASH_ESCAPES = 1;
+    private static final int REWRITE_BATCHED_STATEMENTS = 2;
+    private static final int DONT_CHECK_ON_DUPLICATE_KEY_UPDATE = 4;
+
+    private static final ReferenceQueue<ParseInfo> collected = new ReferenceQueue<>();
+    private static volatile ConcurrentLRUCache<Key, CachedParseInfo> cache = null;
+
+    public CacheAdapter<String, ParseInfo> getInstance(Object syncMutex, String url, int cacheMaxSize, int maxKeySize) {
+        if (!(syncMutex instanceof MysqlConnection)) {
+            throw ExceptionFactory.createException(WrongArgumentException.class, Messages.getString("PerVmParseInfoCacheFactory.0"));
+        }
+        Session session = ((MysqlConnection) syncMutex).getSession();
+        return new PerVmParseInfoCache(getCache(session.getPropertySet().getMemorySizeProperty(PropertyKey.parseInfoCacheMaxMemory).getValue()),
+                session, maxKeySize);
+    }
+
+    /**
+     * Get the JVM-wide cache, creating it the first time.
+     * 
+     * @param maxMemory
+     *            size of the cache if it has to be created
+     * @return cache
+     */
+    static ConcurrentLRUCache<Key, CachedParseInfo> getCache(long maxMemory) {
+        ConcurrentLRUCache<Key, CachedParseInfo> c = cache;
+        if (c == null) {
+            synchronized (PerVmParseInfoCacheFactory.class) {
+                c = cache;
+                if (c == null) {
+                    cache = c = new ConcurrentLRUCache<>(maxMemory, r -> r.size, null);
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Drop the entries whose ParseInfo was released by the garbage collector.
+     */
+    static void purgeCollected() {
+        CachedParseInfo ref;
+        while ((ref = (CachedParseInfo) collected.poll()) != null) {
+            ConcurrentLRUCache<Key, CachedParseInfo> c = cache;
+            if (c != null) {
+                c.remove(ref.key, ref);
+            }
+        }
+    }
+
+    /**
+     * Estimate the memory a ParseInfo takes, with the batch rewrite ParseInfos it builds.
+     * 
+     * @param sql
+     *            the SQL the ParseInfo was built from
+     * @param info
+     *            ParseInfo
+     * @return size in bytes
+     */
+    static int estimateSize(String sql, ParseInfo info) {
+        long size = 128 + 2L * sql.length(); // key, references and the SQL string
+        long infoSize = 96;
+        if (info.staticSql != null) {
+            for (byte[] part : info.staticSql) {
+                infoSize += 16 + (part == null ? 0 : part.length);
+            }
+        }
+        if (info.valuesClause != null) {
+            infoSize += 40 + 2L * info.valuesClause.length();
+        }
+        if (info.canRewriteAsMultiValueInsert) {
+            infoSize *= 2; // head, values and ON DUPLICATE KEY UPDATE parts of the statement
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size + infoSize);
+    }
+
+    static final class Key {
+        final String sql;
+        final String encoding;
+        final String quote;
+        final int flags;
+        private final int hash;
+
+        Key(String sql, String encoding, String quote, int flags) {
+            this.sql = sql;
+            this.encoding = encoding;
+            this.quote = quote;
+            this.flags = flags;
+            this.hash = Objects.hash(sql, encoding, quote, flags);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.hash == other.hash && this.flags == other.flags && this.sql.equals(other.sql) && Objects.equals(this.encoding, other.encoding)
+                    && Objects.equals(this.quote, other.quote);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    static final class CachedParseInfo extends SoftReference<ParseInfo> {
+        final Key key;
+        final int size;
+
+        CachedParseInfo(Key key, ParseInfo info) {
+            super(info, collected);
+            this.key = key;
+            this.size = estimateSize(key.sql, info);
+        }
+    }
+
+    class PerVmParseInfoCache implements CacheAdapter<String, ParseInfo> {
+        private final ConcurrentLRUCache<Key, CachedParseInfo> sharedCache;
+        private final Session session;
+        private final int cacheSqlLimit;
+        private final RuntimeProperty<String> characterEncoding;
+        private final RuntimeProperty<Boolean> rewriteBatchedStatements;
+        private final RuntimeProperty<Boolean> dontCheckOnDuplicateKeyUpdateInSQL;
+
+        protected PerVmParseInfoCache(ConcurrentLRUCache<Key, CachedParseInfo> sharedCache, Session session, int maxKeySize) {
+            this.sharedCache = sharedCache;
+            this.session = session;
+            this.cacheSqlLimit = maxKeySize;
+            PropertySet propertySet = session.getPropertySet();
+            this.characterEncoding = propertySet.getStringProperty(PropertyKey.characterEncoding);
+            this.rewriteBatchedStatements = propertySet.getBooleanProperty(PropertyKey.rewriteBatchedStatements);
+            this.dontCheckOnDuplicateKeyUpdateInSQL = propertySet.getBooleanProperty(PropertyKey.dontCheckOnDuplicateKeyUpdateInSQL);
+        }
+
+        private Key keyFor(String sql) {
+            int flags = 0;
+            if (this.session.getServerSession().isNoBackslashEscapesSet()) {
+                flags |= NO_BACKSLASH_ESCAPES;
+            }
+            if (this.rewriteBatchedStatements.getValue()) {
+                flags |= REWRITE_BATCHED_STATEMENTS;
+            }
+            if (this.dontCheckOnDuplicateKeyUpdateInSQL.getValue()) {
+                flags |= DONT_CHECK_ON_DUPLICATE_KEY_UPDATE;
+            }
+            return new Key(sql, this.characterEncoding.getValue(), this.session.getIdentifierQuoteString(), flags);
+        }
+
+        public ParseInfo get(String key) {
+            if (key == null || key.length() > this.cacheSqlLimit) {
+                return null;
+            }
+
+            Key cacheKey = keyFor(key);
+            CachedParseInfo ref = this.sharedCache.get(cacheKey);
+            if (ref == null) {
+                return null;
+            }
+            ParseInfo info = ref.get();
+            if (info == null) {
+                this.sharedCache.remove(cacheKey, ref);
+            }
+            return info;
+        }
+
+        public void put(String key, ParseInfo value) {
+            if (key == null || key.length() > this.cacheSqlLimit || value == null) {
+                return;
+            }
+
+            purgeCollected();
+            Key cacheKey = keyFor(key);
+            this.sharedCache.put(cacheKey, new CachedParseInfo(cacheKey, value));
+        }
+
+        public void invalidate(String key) {
+            if (key != null) {
+                this.sharedCache.invalidate(keyFor(key));
+            }
+        }
+
+        public void invalidateAll(Set<String> keys) {
+            for (String key : keys) {
+                invalidate(key);
+            }
+        }
+
+        /**
+         * Clears the cache shared by all connections.
+         */
+        public void invalidateAll() {
+            this.sharedCache.invalidateAll();
+        }
+    }
+}
@@ -260,6 +260,9 @@ public class PropertyDefinitions {
                 new StringPropertyDefinition(PropertyKey.socketFactory, "com.mysql.cj.protocol.StandardSocketFactory", RUNTIME_MODIFIABLE,
                         Messages.getString("ConnectionProperties.socketFactory"), "3.0.3", CATEGORY_NETWORK, 4),
 
+                new BooleanPropertyDefinition(PropertyKey.useAsyncSocketChannel, DEFAULT_VALUE_FALSE, RUNTIME_NOT_MODIFIABLE,
+                        Messages.getString("ConnectionProperties.useAsyncSocketChannel"), "8.0.19", CATEGORY_NETWORK, Integer.MIN_VALUE),
+
                 new StringPropertyDefinition(PropertyKey.socksProxyHost, DEFAULT_VALUE_NULL_STRING, RUNTIME_MODIFIABLE,
                         Messages.getString("ConnectionProperties.socksProxyHost"), "5.1.34", CATEGORY_NETWORK, 1),
 
@@ -644,6 +647,9 @@ public class PropertyDefinitions {
                 new StringPropertyDefinition(PropertyKey.parseInfoCacheFactory, PerConnectionLRUFactory.class.getName(), RUNTIME_MODIFIABLE,
                         Messages.getString("ConnectionProperties.parseInfoCacheFactory"), "5.1.1", CATEGORY_PERFORMANCE, 12),
 
+                new MemorySizePropertyDefinition(PropertyKey.parseInfoCacheMaxMemory, 16 * 1024 * 1024, RUNTIME_MODIFIABLE,
+                        Messages.getString("ConnectionProperties.parseInfoCacheMaxMemory"), "8.0.19", CATEGORY_PERFORMANCE, 13, 0, Integer.MAX_VALUE),
+
                 new BooleanPropertyDefinition(PropertyKey.rewriteBatchedStatements, DEFAULT_VALUE_FALSE, RUNTIME_MODIFIABLE,
                         Messages.getString("ConnectionProperties.rewriteBatchedStatements"), "3.1.13", CATEGORY_PERFORMANCE, Integer.MIN_VALUE),
 
@@ -659,6 +665,13 @@ public class PropertyDefinitions {
                 new BooleanPropertyDefinition(PropertyKey.useReadAheadInput, DEFAULT_VALUE_TRUE, RUNTIME_MODIFIABLE,
                         Messages.getString("ConnectionProperties.useReadAheadInput"), "3.1.5", CATEGORY_PERFORMANCE, Integer.MIN_VALUE),
 
+                new BooleanPropertyDefinition(PropertyKey.usePacketBufferPool, DEFAULT_VALUE_FALSE, RUNTIME_NOT_MODIFIABLE,
+                        Messages.getString("ConnectionProperties.usePacketBufferPool"), "8.0.19", CATEGORY_PERFORMANCE, Integer.MIN_VALUE),
+
+                new MemorySizePropertyDefinition(PropertyKey.packetBufferPoolMaxSize, 65536, RUNTIME_NOT_MODIFIABLE,
+                        Messages.getString("ConnectionProperties.packetBufferPoolMaxSize"), "8.0.19", CATEGORY_PERFORMANCE, Integer.MIN_VALUE, 256,
+                        16 * 1024 * 1024),
+
                 new BooleanPropertyDefinition(PropertyKey.dontCheckOnDuplicateKeyUpdateInSQL, DEFAULT_VALUE_FALSE, RUNTIME_MODIFIABLE,
                         Messages.getString("ConnectionProperties.dontCheckOnDuplicateKeyUpdateInSQL"), "5.1.32", CATEGORY_PERFORMANCE, Integer.MIN_VALUE),
 
@@ -160,10 +160,12 @@ public enum PropertyKey {
     noDatetimeStringSync("noDatetimeStringSync", true), //
     nullDatabaseMeansCurrent("nullDatabaseMeansCurrent", "nullCatalogMeansCurrent", true), //
     overrideSupportsIntegrityEnhancementFacility("overrideSupportsIntegrityEnhancementFacility", true), //
+    packetBufferPoolMaxSize("packetBufferPoolMaxSize", true), //
     packetDebugBufferSize("packetDebugBufferSize", true), //
     padCharsWithSpace("padCharsWithSpace", true), //
     paranoid("paranoid", false), //
     parseInfoCacheFactory("parseInfoCacheFactory", true), //
+    parseInfoCacheMaxMemory("parseInfoCacheMaxMemory", true), //
     passwordCharacterEncoding("passwordCharacterEncoding", true), //
     pedantic("pedantic", true), //
     pinGlobalTxToPhysicalConnection("pinGlobalTxToPhysicalConnection", true), //
@@ -219,6 +221,7 @@ public enum PropertyKey {
     trustCertificateKeyStoreUrl("trustCertificateKeyStoreUrl", true), //
     ultraDevHack("ultraDevHack", true), //
     useAffectedRows("useAffectedRows", true), //
+    useAsyncSocketChannel("useAsyncSocketChannel", true), //
     useColumnNamesInFindColumn("useColumnNamesInFindColumn", true), //
     useCompression("useCompression", true), //
     useConfigs("useConfigs", true), //
@@ -230,6 +233,7 @@ public enum PropertyKey {
     useNanosForElapsedTime("useNanosForElapsedTime", true), //
     useOldAliasMetadataBehavior("useOldAliasMetadataBehavior", true), //
     useOnlyServerErrorMessages("useOnlyServerErrorMessages", true), //
+    usePacketBufferPool("usePacketBufferPool", true), //
     useReadAheadInput("useReadAheadInput", true), //
     useServerPrepStmts("useServerPrepStmts", true), //
     useSSL("useSSL", true), //
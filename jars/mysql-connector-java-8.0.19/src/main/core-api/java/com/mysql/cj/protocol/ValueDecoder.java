@@ -29,6 +29,9 @@
 
 package com.mysql.cj.protocol;
 
+import com.mysql.cj.Messages;
+import com.mysql.cj.exceptions.CJOperationNotSupportedException;
+import com.mysql.cj.exceptions.ExceptionFactory;
 import com.mysql.cj.result.Field;
 import com.mysql.cj.result.ValueFactory;
 
@@ -74,4 +77,38 @@ public interface ValueDecoder {
     <T> T decodeSet(byte[] bytes, int offset, int length, Field f, ValueFactory<T> vf);
 
     <T> T decodeYear(byte[] bytes, int offset, int length, ValueFactory<T> vf);
+
+    /**
+     * Decodes a value of an integer type into a primitive long, bypassing the {@link ValueFactory} so that no value object is created.
+     *
+     * @param bytes
+     *            buffer holding the value
+     * @param offset
+     *            offset of the value in the buffer
+     * @param length
+     *            length of the value
+     * @param f
+     *            field describing the value; its protocol type must be an integer type whose values fit into a long
+     * @return the value
+     */
+    default long decodeLong(byte[] bytes, int offset, int length, Field f) {
+        throw ExceptionFactory.createException(CJOperationNotSupportedException.class, Messages.getString("OperationNotSupportedException.0"));
+    }
+
+    /**
+     * Decodes a value of a FLOAT or DOUBLE type into a primitive double, bypassing the {@link ValueFactory} so that no value object is created.
+     *
+     * @param bytes
+     *            buffer holding the value
+     * @param offset
+     *            offset of the value in the buffer
+     * @param length
+     *            length of the value
+     * @param f
+     *            field describing the value
+     * @return the value
+     */
+    default double decodeDouble(byte[] bytes, int offset, int length, Field f) {
+        throw ExceptionFactory.createException(CJOperationNotSupportedException.class, Messages.getString("OperationNotSupportedException.0"));
+    }
 }
@@ -53,6 +53,30 @@ public interface Row extends ProtocolEntity {
      */
     <T> T getValue(int columnIndex, ValueFactory<T> vf);
 
+    /**
+     * Retrieve the value of an integer column as a primitive long, decoding it in place without creating a value object. Only integer protocol types
+     * whose values fit into a long (i.e. not BIGINT UNSIGNED) may be read this way; the caller is responsible for checking the column type.
+     *
+     * @param columnIndex
+     *            index of column to retrieve value from (0-indexed, not JDBC 1-indexed)
+     * @return the value; 0 if the value is SQL <code>NULL</code>, use {@link #wasNull()} to distinguish
+     */
+    default long getLong(int columnIndex) {
+        throw ExceptionFactory.createException(CJOperationNotSupportedException.class, Messages.getString("OperationNotSupportedException.0"));
+    }
+
+    /**
+     * Retrieve the value of a FLOAT or DOUBLE column as a primitive double, decoding it in place without creating a value object. The caller is
+     * responsible for checking the column type.
+     *
+     * @param columnIndex
+     *            index of column to retrieve value from (0-indexed, not JDBC 1-indexed)
+     * @return the value; 0 if the value is SQL <code>NULL</code>, use {@link #wasNull()} to distinguish
+     */
+    default double getDouble(int columnIndex) {
+        throw ExceptionFactory.createException(CJOperationNotSupportedException.class, Messages.getString("OperationNotSupportedException.0"));
+    }
+
     /**
      * Set metadata to enable getValue functionality.
      * 
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+import com.mysql.cj.CacheAdapter;
+
+/**
+ * A bounded cache that can be used from several threads without a common lock, as an alternative to a synchronized {@link LRUCache}.
+ * 
+ * Entries are spread over lock-striped segments. Each segment keeps its entries in a {@link ConcurrentHashMap}, so {@link #get(Object)} and
+ * {@link #remove(Object)} never lock; a lookup only stamps the entry with the segment's access clock. Adding an entry locks its segment, and when the
+ * segment is over its share of the capacity entries are evicted until it fits.
+ * 
+ * The capacity is a number of entries, or with a weigher a total weight, e.g. an estimate of the memory the values take.
+ * 
+ * Eviction is segmented LRU: an entry starts out on probation and is protected once it is read again. The least recently used entry on probation is
+ * evicted first, and at most 80% of a segment's capacity is protected, the least recently used protected entries moving back to probation beyond that. This keeps
+ * statements that are used over and over cached when a burst of one-off statements comes through.
+ * 
+ * Victims are found by scanning the segment, which is cheap for the sizes statement and metadata caches are configured with.
+ * 
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+public class ConcurrentLRUCache<K, V> implements CacheAdapter<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long maxSize;
+    private final ToIntFunction<V> weigher;
+    private final BiConsumer<K, V> evictionListener;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            maximum number of entries, a cache of size 0 keeps nothing
+     */
+    public ConcurrentLRUCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            maximum number of entries, a cache of size 0 keeps nothing
+     * @param evictionListener
+     *            called with every entry evicted to make room for another, after the segment lock is released; may be null. Not called for entries
+     *            removed with {@link #remove(Object)} or the invalidate methods.
+     */
+    public ConcurrentLRUCache(int maxSize, BiConsumer<K, V> evictionListener) {
+        this(maxSize, null, evictionListener);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxWeight
+     *            maximum total weight of the entries
+     * @param weigher
+     *            weight of a value, computed once when it is added; null to count entries
+     * @param evictionListener
+     *            called with every entry evicted to make room for another, after the segment lock is released; may be null
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public ConcurrentLRUCache(long maxWeight, ToIntFunction<V> weigher, BiConsumer<K, V> evictionListener) {
+        this.maxSize = Math.max(maxWeight, 0);
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+
+        // Only stripe caches large enough that every segment still holds a useful share
+        int count = (int) Long.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, this.maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment<>(this.maxSize / count + (i < this.maxSize % count ? 1 : 0));
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        Node<K, V> node = segment.map.get(key);
+        if (node == null) {
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        node.accessed = segment.clock.incrementAndGet();
+        if (!node.protectedEntry) {
+            node.protectedEntry = true;
+        }
+        return node.value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        getAndPut(key, value);
+    }
+
+    /**
+     * Add or replace an entry.
+     * 
+     * @param key
+     *            key
+     * @param value
+     *            value
+     * @return the value previously cached for the key, or null
+     */
+    public V getAndPut(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        int weight = this.weigher == null ? 1 : Math.max(this.weigher.applyAsInt(value), 0);
+        List<Node<K, V>> evicted = null;
+        V previous = null;
+
+        segment.lock.lock();
+        try {
+            Node<K, V> node = new Node<>(key, value, weight, segment.clock.incrementAndGet());
+            Node<K, V> old = segment.map.put(key, node);
+            segment.weight.addAndGet(old == null ? weight : weight - old.weight);
+            if (old != null) {
+                node.protectedEntry = old.protectedEntry;
+                previous = old.value;
+            }
+
+            while (segment.weight.get() > segment.capacity) {
+                Node<K, V> victim = segment.victim();
+                if (victim == null) {
+                    break;
+                }
+                if (segment.map.remove(victim.key, victim)) {
+                    segment.weight.addAndGet(-victim.weight);
+                    if (evicted == null) {
+                        evicted = new ArrayList<>(1);
+                    }
+                    evicted.add(victim);
+                }
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (evicted != null) {
+            for (Node<K, V> victim : evicted) {
+                this.evictions.increment();
+                if (this.evictionListener != null) {
+                    this.evictionListener.accept(victim.key, victim.value);
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Remove an entry. Of a remove and an eviction of the same entry racing each other only one succeeds, so a value that is removed to be used is
+     * never handed to the eviction listener.
+     * 
+     * @param key
+     *            key
+     * @return the removed value, or null if the key wasn't cached
+     */
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        Node<K, V> node = segment.map.remove(key);
+        if (node == null) {
+            return null;
+        }
+        segment.weight.addAndGet(-node.weight);
+        return node.value;
+    }
+
+    /**
+     * Remove an entry if it still holds the given value.
+     * 
+     * @param key
+     *            key
+     * @param value
+     *            the value expected, compared by identity
+     * @return true if the entry was removed
+     */
+    public boolean remove(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        Node<K, V> node = segment.map.get(key);
+        if (node == null || node.value != value || !segment.map.remove(key, node)) {
+            return false;
+        }
+        segment.weight.addAndGet(-node.weight);
+        return true;
+    }
+
+    @Override
+    public void invalidate(K key) {
+        remove(key);
+    }
+
+    @Override
+    public void invalidateAll(Set<K> keys) {
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (Segment<K, V> segment : this.segments) {
+            for (K key : segment.map.keySet()) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * @return number of cached entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : this.segments) {
+            size += segment.map.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return a snapshot of the cached keys
+     */
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        for (Segment<K, V> segment : this.segments) {
+            keys.addAll(segment.map.keySet());
+        }
+        return keys;
+    }
+
+    /**
+     * @return total weight of the cached entries, the number of entries if there is no weigher
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment<K, V> segment : this.segments) {
+            weight += segment.weight.get();
+        }
+        return weight;
+    }
+
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * @return number of lookups that found an entry
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of lookups that didn't find an entry
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return number of entries evicted to make room for others
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "[size=" + size() + ", maxSize=" + this.maxSize + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return this.segments[h & (this.segments.length - 1)];
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        volatile long accessed;
+        volatile boolean protectedEntry = false;
+
+        Node(K key, V value, int weight, long accessed) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.accessed = accessed;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+        final AtomicLong clock = new AtomicLong();
+        final AtomicLong weight = new AtomicLong();
+        final ReentrantLock lock = new ReentrantLock();
+        final long capacity;
+        final long maxProtected;
+
+        Segment(long capacity) {
+            this.capacity = capacity;
+            this.maxProtected = capacity * 4 / 5;
+        }
+
+        /**
+         * Find the entry to evict, called holding the lock.
+         * 
+         * @return the entry to evict, or null if the segment is empty
+         */
+        Node<K, V> victim() {
+            long protectedWeight = 0;
+            Node<K, V> oldestProtected = null;
+            Node<K, V> oldestProbation = null;
+            for (Node<K, V> node : this.map.values()) {
+                if (node.protectedEntry) {
+                    protectedWeight += node.weight;
+                    if (oldestProtected == null || node.accessed < oldestProtected.accessed) {
+                        oldestProtected = node;
+                    }
+                } else if (oldestProbation == null || node.accessed < oldestProbation.accessed) {
+                    oldestProbation = node;
+                }
+            }
+
+            if (oldestProtected != null && protectedWeight > this.maxProtected) {
+                oldestProtected.protectedEntry = false;
+                if (oldestProbation == null || oldestProtected.accessed < oldestProbation.accessed) {
+                    oldestProbation = oldestProtected;
+                }
+            }
+
+            return oldestProbation != null ? oldestProbation : oldestProtected;
+        }
+    }
+}
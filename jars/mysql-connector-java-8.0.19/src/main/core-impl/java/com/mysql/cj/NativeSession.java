@@ -47,6 +47,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Timer;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 
@@ -73,12 +74,14 @@ import com.mysql.cj.protocol.Resultset.Type;
 import com.mysql.cj.protocol.ServerSession;
 import com.mysql.cj.protocol.SocketConnection;
 import com.mysql.cj.protocol.SocketFactory;
+import com.mysql.cj.protocol.a.NativeAsyncSocketConnection;
 import com.mysql.cj.protocol.a.NativeMessageBuilder;
 import com.mysql.cj.protocol.a.NativePacketPayload;
 import com.mysql.cj.protocol.a.NativeProtocol;
 import com.mysql.cj.protocol.a.NativeServerSession;
 import com.mysql.cj.protocol.a.NativeSocketConnection;
 import com.mysql.cj.protocol.a.ResultsetFactory;
+import com.mysql.cj.protocol.a.result.OkPacket;
 import com.mysql.cj.result.Field;
 import com.mysql.cj.result.IntegerValueFactory;
 import com.mysql.cj.result.LongValueFactory;
@@ -139,8 +142,8 @@ public class NativeSession extends CoreSession implements Serializable {
         // reset max-rows to default value
         this.setSessionMaxRows(-1);
 
-        // TODO do we need different types of physical connections?
-        SocketConnection socketConnection = new NativeSocketConnection();
+        SocketConnection socketConnection = this.propertySet.getBooleanProperty(PropertyKey.useAsyncSocketChannel).getValue()
+                ? new NativeAsyncSocketConnection() : new NativeSocketConnection();
         socketConnection.connect(this.hostInfo.getHost(), this.hostInfo.getPort(), this.propertySet, getExceptionInterceptor(), this.log, loginTimeout);
 
         // we use physical connection to create a -> protocol
@@ -311,6 +314,17 @@ public class NativeSession extends CoreSession implements Serializable {
         return (NativePacketPayload) this.protocol.sendCommand(queryPacket, skipCheck, timeoutMillis);
     }
 
+    /**
+     * Send a command without waiting for its response, see {@link NativeProtocol#sendCommandAsync(NativePacketPayload)}.
+     * 
+     * @param queryPacket
+     *            command payload
+     * @return future completed with the OK packet of the command, or failed with the error
+     */
+    public CompletableFuture<OkPacket> sendCommandAsync(NativePacketPayload queryPacket) {
+        return ((NativeProtocol) this.protocol).sendCommandAsync(queryPacket);
+    }
+
     public long getSlowQueryThreshold() {
         return ((NativeProtocol) this.protocol).getSlowQueryThreshold();
     }
@@ -339,7 +353,11 @@ public class NativeSession extends CoreSession implements Serializable {
     @Override
     public SocketAddress getRemoteSocketAddress() {
         try {
-            return this.protocol.getSocketConnection().getMysqlSocket().getRemoteSocketAddress();
+            SocketConnection socketConnection = this.protocol.getSocketConnection();
+            if (socketConnection instanceof NativeAsyncSocketConnection) {
+                return socketConnection.getAsynchronousSocketChannel().getRemoteAddress();
+            }
+            return socketConnection.getMysqlSocket().getRemoteSocketAddress();
         } catch (IOException e) {
             throw new CJCommunicationsException(e);
         }
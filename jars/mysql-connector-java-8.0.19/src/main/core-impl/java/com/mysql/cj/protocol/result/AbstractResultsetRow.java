@@ -243,6 +243,46 @@ public abstract class AbstractResultsetRow implements ResultsetRow {
         return retVal;
     }
 
+    /**
+     * Decode an integer value in place, see {@link Row#getLong(int)}.
+     * 
+     * @param columnIndex
+     *            index of column to retrieve value from (0-indexed, not JDBC 1-indexed)
+     * @param bytes
+     *            buffer holding the value
+     * @param offset
+     *            offset of the value in the buffer
+     * @param length
+     *            length of the value
+     * @return the value, 0 for SQL NULL
+     */
+    protected long getLongFromBytes(int columnIndex, byte[] bytes, int offset, int length) {
+        if (getNull(columnIndex)) {
+            return 0;
+        }
+        return this.valueDecoder.decodeLong(bytes, offset, length, this.metadata.getFields()[columnIndex]);
+    }
+
+    /**
+     * Decode a floating point value in place, see {@link Row#getDouble(int)}.
+     * 
+     * @param columnIndex
+     *            index of column to retrieve value from (0-indexed, not JDBC 1-indexed)
+     * @param bytes
+     *            buffer holding the value
+     * @param offset
+     *            offset of the value in the buffer
+     * @param length
+     *            length of the value
+     * @return the value, 0 for SQL NULL
+     */
+    protected double getDoubleFromBytes(int columnIndex, byte[] bytes, int offset, int length) {
+        if (getNull(columnIndex)) {
+            return 0;
+        }
+        return this.valueDecoder.decodeDouble(bytes, offset, length, this.metadata.getFields()[columnIndex]);
+    }
+
     @Override
     public Row setMetadata(ColumnDefinition f) {
         this.metadata = f;
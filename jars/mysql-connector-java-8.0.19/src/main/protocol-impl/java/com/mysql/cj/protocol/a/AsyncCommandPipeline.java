@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj.protocol.a;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.mysql.cj.Messages;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.exceptions.CJCommunicationsException;
+import com.mysql.cj.exceptions.CJException;
+import com.mysql.cj.exceptions.CJPacketTooBigException;
+import com.mysql.cj.exceptions.ExceptionFactory;
+import com.mysql.cj.protocol.a.NativeConstants.IntegerDataType;
+import com.mysql.cj.protocol.a.result.OkPacket;
+
+/**
+ * Sends commands over a {@link NativeAsyncSocketConnection} without waiting for the previous ones to be answered, and completes a future for each command
+ * once its response has been read.
+ * 
+ * Responses arrive in the order the commands were sent, so the pipeline keeps a queue of pending commands and hands every packet it reads to the oldest one.
+ * Only commands answered with OK or ERR packets are supported: a result set is read and discarded and a LOCAL INFILE request is answered with an empty file,
+ * and the command fails in both cases. Reads are issued only while commands are pending, so once the pipeline is idle nothing of the input is consumed and the
+ * blocking protocol code can use the connection again.
+ * 
+ * Futures are completed on a thread of the channel group after the next read has been issued, so dependent actions may use the connection, including
+ * blocking calls that wait for the remaining commands. Actions of different reads can run concurrently and aren't ordered with respect to each other.
+ * 
+ * If reading or writing fails, the channel is closed and all pending commands fail with a {@link CJCommunicationsException}.
+ */
+public class AsyncCommandPipeline implements CompletionHandler<Integer, Void> {
+
+    private static final int READ_BUFFER_SIZE = 16384;
+
+    private enum State {
+        RESPONSE, COLUMNS, COLUMNS_EOF, ROWS;
+    }
+
+    private static class PendingCommand {
+        final CompletableFuture<OkPacket> future = new CompletableFuture<>();
+        State state = State.RESPONSE;
+        long columnsLeft = 0;
+        OkPacket ok = null;
+        CJException error = null;
+    }
+
+    private final NativeProtocol protocol;
+    private final NativeAsyncSocketConnection socketConnection;
+
+    /**
+     * Commands sent and not yet answered, oldest first. Also the mutex for all state of the pipeline other than the read buffer, which only the current
+     * read uses.
+     */
+    private final LinkedList<PendingCommand> pending = new LinkedList<>();
+    private boolean reading = false;
+    private CJException failure = null;
+
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private int neededCapacity = 0;
+    private byte[] partialPayload = null;
+
+    private final CompletionHandler<Long, Void> writeHandler = new CompletionHandler<Long, Void>() {
+        public void completed(Long result, Void attachment) {
+        }
+
+        public void failed(Throwable exc, Void attachment) {
+            fail(exc);
+        }
+    };
+
+    /**
+     * Constructor.
+     * 
+     * @param protocol
+     *            the protocol owning the connection
+     * @param socketConnection
+     *            the connection to send commands over
+     */
+    public AsyncCommandPipeline(NativeProtocol protocol, NativeAsyncSocketConnection socketConnection) {
+        this.protocol = protocol;
+        this.socketConnection = socketConnection;
+    }
+
+    /**
+     * Send a command. The command is written after any command or blocking write issued before, and this method doesn't wait for it to be written.
+     * 
+     * @param packet
+     *            command payload, without packet header
+     * @param packetLen
+     *            payload length
+     * @return future completed with the OK packet of the command's first result, or failed with the server error
+     */
+    public CompletableFuture<OkPacket> submit(NativePacketPayload packet, int packetLen) {
+        PendingCommand cmd = new PendingCommand();
+
+        int maxAllowedPacket = this.protocol.getPropertySet().getIntegerProperty(PropertyKey.maxAllowedPacket).getValue();
+        if (maxAllowedPacket > 0 && packetLen > maxAllowedPacket) {
+            cmd.future.completeExceptionally(new CJPacketTooBigException(packetLen, maxAllowedPacket));
+            return cmd.future;
+        }
+
+        // the payload is copied, callers reuse their packets
+        PacketSplitter packetSplitter = new PacketSplitter(packetLen);
+        int packets = 0;
+        while (packetSplitter.nextPacket()) {
+            packets++;
+        }
+        byte[] buf = new byte[packetLen + packets * NativeConstants.HEADER_LENGTH];
+        packetSplitter = new PacketSplitter(packetLen);
+        int pos = 0;
+        byte packetSequence = 0;
+        while (packetSplitter.nextPacket()) {
+            int len = packetSplitter.getPacketLen();
+            buf[pos++] = (byte) len;
+            buf[pos++] = (byte) (len >>> 8);
+            buf[pos++] = (byte) (len >>> 16);
+            buf[pos++] = packetSequence++;
+            System.arraycopy(packet.getByteBuffer(), packetSplitter.getOffset(), buf, pos, len);
+            pos += len;
+        }
+
+        boolean startReading = false;
+        synchronized (this.pending) {
+            if (this.failure != null) {
+                cmd.future.completeExceptionally(this.failure);
+                return cmd.future;
+            }
+            this.pending.add(cmd);
+            this.socketConnection.getBufferWriter().queueBuffer(ByteBuffer.wrap(buf), this.writeHandler);
+            if (!this.reading) {
+                this.reading = true;
+                startReading = true;
+            }
+        }
+        if (startReading) {
+            read();
+        }
+        return cmd.future;
+    }
+
+    /**
+     * Wait until all submitted commands have been answered. Must be called before the blocking protocol code uses the connection.
+     */
+    public void awaitIdle() {
+        synchronized (this.pending) {
+            boolean interrupted = false;
+            while (!this.pending.isEmpty()) {
+                try {
+                    this.pending.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void read() {
+        try {
+            this.socketConnection.getAsynchronousSocketChannel().read(this.readBuffer, this.socketConnection.getSoTimeout(), TimeUnit.MILLISECONDS, null, this);
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    /**
+     * Completion handler for channel reads.
+     * 
+     * @param bytesRead
+     *            number of bytes read, -1 at end of stream
+     * @param attachment
+     *            Void
+     */
+    public void completed(Integer bytesRead, Void attachment) {
+        if (bytesRead < 0) {
+            fail(new EOFException(Messages.getString("MysqlIO.EOF", new Object[] { Integer.valueOf(NativeConstants.HEADER_LENGTH), Integer.valueOf(0) })));
+            return;
+        }
+
+        List<PendingCommand> done = new ArrayList<>();
+        boolean readMore = false;
+        Throwable error = null;
+        synchronized (this.pending) {
+            this.readBuffer.flip();
+            try {
+                readPackets(done);
+            } catch (Throwable t) {
+                error = t;
+            }
+            this.readBuffer.compact();
+
+            if (this.neededCapacity > this.readBuffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(this.neededCapacity);
+                this.readBuffer.flip();
+                larger.put(this.readBuffer);
+                this.readBuffer = larger;
+            } else if (this.readBuffer.position() == 0 && this.readBuffer.capacity() > READ_BUFFER_SIZE) {
+                // don't hold on to the buffer of a large packet
+                this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            }
+            this.neededCapacity = 0;
+
+            if (error == null) {
+                readMore = !this.pending.isEmpty();
+                if (!readMore) {
+                    this.reading = false;
+                    this.pending.notifyAll();
+                }
+            }
+        }
+
+        // Issue the next read before completing, dependent actions run on this thread and may block on the connection until the commands still
+        // pending are answered, which then happens on another thread of the channel group
+        if (error != null) {
+            fail(error);
+        } else if (readMore) {
+            read();
+        }
+
+        // complete outside of the mutex, dependent actions may submit new commands
+        for (PendingCommand cmd : done) {
+            if (cmd.error != null) {
+                cmd.future.completeExceptionally(cmd.error);
+            } else {
+                cmd.future.complete(cmd.ok);
+            }
+        }
+    }
+
+    public void failed(Throwable exc, Void attachment) {
+        fail(exc);
+    }
+
+    /**
+     * Take all complete packets out of the read buffer and hand them to the pending commands.
+     * 
+     * @param done
+     *            list to add the commands that got their final response to
+     */
+    private void readPackets(List<PendingCommand> done) {
+        while (this.readBuffer.remaining() >= NativeConstants.HEADER_LENGTH) {
+            int start = this.readBuffer.position();
+            int len = (this.readBuffer.get(start) & 0xff) | ((this.readBuffer.get(start + 1) & 0xff) << 8) | ((this.readBuffer.get(start + 2) & 0xff) << 16);
+            byte packetSequence = this.readBuffer.get(start + 3);
+            if (this.readBuffer.remaining() < NativeConstants.HEADER_LENGTH + len) {
+                this.neededCapacity = NativeConstants.HEADER_LENGTH + len;
+                return;
+            }
+            this.readBuffer.position(start + NativeConstants.HEADER_LENGTH);
+
+            byte[] payload;
+            if (this.partialPayload == null) {
+                payload = new byte[len];
+                this.readBuffer.get(payload);
+            } else {
+                payload = new byte[this.partialPayload.length + len];
+                System.arraycopy(this.partialPayload, 0, payload, 0, this.partialPayload.length);
+                this.readBuffer.get(payload, this.partialPayload.length, len);
+                this.partialPayload = null;
+            }
+            if (len == NativeConstants.MAX_PACKET_SIZE) {
+                // a multi-packet, the rest of the payload follows in the next packet
+                this.partialPayload = payload;
+                continue;
+            }
+
+            PendingCommand cmd = this.pending.peek();
+            if (cmd == null) {
+                throw ExceptionFactory.createException(Messages.getString("AsyncCommandPipeline.3"), this.protocol.getExceptionInterceptor());
+            }
+            if (handlePacket(cmd, new NativePacketPayload(payload), packetSequence)) {
+                done.add(this.pending.remove());
+            }
+        }
+    }
+
+    /**
+     * Advance the command's response state by one packet.
+     * 
+     * @param cmd
+     *            the oldest pending command
+     * @param packet
+     *            the packet
+     * @param packetSequence
+     *            sequence number of the packet
+     * @return true if this was the last packet of the command's response
+     */
+    private boolean handlePacket(PendingCommand cmd, NativePacketPayload packet, byte packetSequence) {
+        NativeServerSession serverSession = this.protocol.getServerSession();
+        int type = packet.getPayloadLength() > 0 ? packet.getByteBuffer()[0] & 0xff : -1;
+
+        switch (cmd.state) {
+            case RESPONSE:
+                if (type == NativePacketPayload.TYPE_ID_ERROR) {
+                    setError(cmd, this.protocol.createErrorException(packet, false));
+                    return true;
+                }
+                if (type == NativePacketPayload.TYPE_ID_OK) {
+                    OkPacket ok = OkPacket.parse(packet, serverSession.getErrorMessageEncoding());
+                    if (cmd.ok == null) {
+                        cmd.ok = ok;
+                    }
+                    return isLastResult(ok.getStatusFlags());
+                }
+                if (type == NativePacketPayload.TYPE_ID_LOCAL_INFILE) {
+                    // send an empty file, the server answers with OK or ERR
+                    byte[] empty = new byte[] { 0, 0, 0, (byte) (packetSequence + 1) };
+                    this.socketConnection.getBufferWriter().queueBuffer(ByteBuffer.wrap(empty), this.writeHandler);
+                    setError(cmd, ExceptionFactory.createException(Messages.getString("AsyncCommandPipeline.2"), this.protocol.getExceptionInterceptor()));
+                    return false;
+                }
+                // a result set, starting with the column count
+                packet.setPosition(0);
+                cmd.columnsLeft = packet.readInteger(IntegerDataType.INT_LENENC);
+                cmd.state = State.COLUMNS;
+                setError(cmd, ExceptionFactory.createException(Messages.getString("AsyncCommandPipeline.1"), this.protocol.getExceptionInterceptor()));
+                return false;
+
+            case COLUMNS:
+                if (--cmd.columnsLeft == 0) {
+                    cmd.state = serverSession.isEOFDeprecated() ? State.ROWS : State.COLUMNS_EOF;
+                }
+                return false;
+
+            case COLUMNS_EOF:
+                cmd.state = State.ROWS;
+                return false;
+
+            case ROWS:
+            default:
+                if (type == NativePacketPayload.TYPE_ID_ERROR) {
+                    setError(cmd, this.protocol.createErrorException(packet, false));
+                    return true;
+                }
+                int statusFlags;
+                if (serverSession.isEOFDeprecated() && packet.isResultSetOKPacket()) {
+                    statusFlags = OkPacket.parse(packet, serverSession.getErrorMessageEncoding()).getStatusFlags();
+                } else if (!serverSession.isEOFDeprecated() && packet.isEOFPacket()) {
+                    packet.setPosition(3); // skips the packet signature and warning count
+                    statusFlags = (int) packet.readInteger(IntegerDataType.INT2);
+                } else {
+                    return false;
+                }
+                cmd.state = State.RESPONSE;
+                return isLastResult(statusFlags);
+        }
+    }
+
+    private boolean isLastResult(int statusFlags) {
+        this.protocol.getServerSession().setStatusFlags(statusFlags);
+        return (statusFlags & NativeServerSession.SERVER_MORE_RESULTS_EXISTS) == 0;
+    }
+
+    private static void setError(PendingCommand cmd, CJException error) {
+        // keep the first error, later results of the command don't change the outcome
+        if (cmd.error == null) {
+            cmd.error = error;
+        }
+    }
+
+    /**
+     * Close the connection and fail all pending commands. Nothing can be read reliably after an I/O or protocol error.
+     * 
+     * @param cause
+     *            the error
+     */
+    private void fail(Throwable cause) {
+        List<PendingCommand> failed;
+        CJException ex;
+        synchronized (this.pending) {
+            if (this.failure == null) {
+                this.failure = ExceptionFactory.createCommunicationsException(this.protocol.getPropertySet(), this.protocol.getServerSession(),
+                        this.protocol.getPacketSentTimeHolder(), this.protocol.getPacketReceivedTimeHolder(), cause, this.protocol.getExceptionInterceptor());
+                this.socketConnection.forceClose();
+            }
+            ex = this.failure;
+            failed = new ArrayList<>(this.pending);
+            this.pending.clear();
+            this.reading = false;
+            this.pending.notifyAll();
+        }
+        for (PendingCommand cmd : failed) {
+            cmd.future.completeExceptionally(ex);
+        }
+    }
+}
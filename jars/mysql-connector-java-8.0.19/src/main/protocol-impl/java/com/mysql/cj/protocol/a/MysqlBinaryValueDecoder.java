@@ -33,6 +33,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import com.mysql.cj.Messages;
+import com.mysql.cj.MysqlType;
 import com.mysql.cj.exceptions.DataReadException;
 import com.mysql.cj.protocol.InternalDate;
 import com.mysql.cj.protocol.InternalTime;
@@ -247,4 +248,57 @@ public class MysqlBinaryValueDecoder implements ValueDecoder {
         short asShort = (short) ((bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8));
         return vf.createFromYear(asShort);
     }
+
+    @Override
+    public long decodeLong(byte[] bytes, int offset, int length, Field f) {
+        switch (f.getMysqlTypeId()) {
+            case MysqlType.FIELD_TYPE_TINY:
+                if (length != NativeConstants.BIN_LEN_INT1) {
+                    throw new DataReadException(Messages.getString("ResultSet.InvalidLengthForType", new Object[] { length, "BYTE" }));
+                }
+                return f.isUnsigned() ? bytes[offset] & 0xff : bytes[offset];
+
+            case MysqlType.FIELD_TYPE_SHORT:
+                if (length != NativeConstants.BIN_LEN_INT2) {
+                    throw new DataReadException(Messages.getString("ResultSet.InvalidLengthForType", new Object[] { length, "SHORT" }));
+                }
+                int asInt = (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8);
+                return f.isUnsigned() ? asInt : (short) asInt;
+
+            case MysqlType.FIELD_TYPE_INT24:
+            case MysqlType.FIELD_TYPE_LONG:
+                if (length != NativeConstants.BIN_LEN_INT4) {
+                    throw new DataReadException(Messages.getString("ResultSet.InvalidLengthForType", new Object[] { length, "INT" }));
+                }
+                asInt = (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] & 0xff) << 16) | ((bytes[offset + 3] & 0xff) << 24);
+                return f.isUnsigned() && f.getMysqlTypeId() == MysqlType.FIELD_TYPE_LONG ? asInt & 0xffffffffL : asInt;
+
+            case MysqlType.FIELD_TYPE_LONGLONG:
+                if (length != NativeConstants.BIN_LEN_INT8) {
+                    throw new DataReadException(Messages.getString("ResultSet.InvalidLengthForType", new Object[] { length, "LONG" }));
+                }
+                return (bytes[offset] & 0xff) | ((long) (bytes[offset + 1] & 0xff) << 8) | ((long) (bytes[offset + 2] & 0xff) << 16)
+                        | ((long) (bytes[offset + 3] & 0xff) << 24) | ((long) (bytes[offset + 4] & 0xff) << 32) | ((long) (bytes[offset + 5] & 0xff) << 40)
+                        | ((long) (bytes[offset + 6] & 0xff) << 48) | ((long) (bytes[offset + 7] & 0xff) << 56);
+        }
+        throw new DataReadException(Messages.getString("ResultSet.UnknownSourceType"));
+    }
+
+    @Override
+    public double decodeDouble(byte[] bytes, int offset, int length, Field f) {
+        if (f.getMysqlTypeId() == MysqlType.FIELD_TYPE_FLOAT) {
+            if (length != NativeConstants.BIN_LEN_FLOAT) {
+                throw new DataReadException(Messages.getString("ResultSet.InvalidLengthForType", new Object[] { length, "FLOAT" }));
+            }
+            int asInt = (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] & 0xff) << 16) | ((bytes[offset + 3] & 0xff) << 24);
+            return Float.intBitsToFloat(asInt);
+        }
+        if (length != NativeConstants.BIN_LEN_DOUBLE) {
+            throw new DataReadException(Messages.getString("ResultSet.InvalidLengthForType", new Object[] { length, "DOUBLE" }));
+        }
+        long valueAsLong = (bytes[offset + 0] & 0xff) | ((long) (bytes[offset + 1] & 0xff) << 8) | ((long) (bytes[offset + 2] & 0xff) << 16)
+                | ((long) (bytes[offset + 3] & 0xff) << 24) | ((long) (bytes[offset + 4] & 0xff) << 32) | ((long) (bytes[offset + 5] & 0xff) << 40)
+                | ((long) (bytes[offset + 6] & 0xff) << 48) | ((long) (bytes[offset + 7] & 0xff) << 56);
+        return Double.longBitsToDouble(valueAsLong);
+    }
 }
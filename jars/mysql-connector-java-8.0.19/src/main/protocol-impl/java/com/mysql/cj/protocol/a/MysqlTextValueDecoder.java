@@ -69,6 +69,13 @@ public class MysqlTextValueDecoder implements ValueDecoder {
     /** Max string length of a signed long = 9223372036854775807 (19+1 for minus sign) */
     public static final int MAX_SIGNED_LONG_LEN = 20;
 
+    /** Significant digits that always fit into the 53 bit mantissa of a double, so they convert to it exactly. */
+    private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+
+    /** Powers of ten that are exactly representable as doubles. */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+            1e19, 1e20, 1e21, 1e22 };
+
     public <T> T decodeDate(byte[] bytes, int offset, int length, ValueFactory<T> vf) {
         return vf.createFromDate(getDate(bytes, offset, length));
     }
@@ -148,6 +155,16 @@ public class MysqlTextValueDecoder implements ValueDecoder {
         return vf.createFromYear(getLong(bytes, offset, offset + length));
     }
 
+    @Override
+    public long decodeLong(byte[] bytes, int offset, int length, Field f) {
+        return getLong(bytes, offset, offset + length);
+    }
+
+    @Override
+    public double decodeDouble(byte[] bytes, int offset, int length, Field f) {
+        return getDouble(bytes, offset, length);
+    }
+
     public static int getInt(byte[] buf, int offset, int endpos) throws NumberFormatException {
         long l = getLong(buf, offset, endpos);
         if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE) {
@@ -236,7 +253,105 @@ public class MysqlTextValueDecoder implements ValueDecoder {
         return i;
     }
 
-    public static Double getDouble(byte[] bytes, int offset, int length) {
+    /**
+     * Parses a floating point value directly from the buffer. Plain decimal literals with at most {@link #MAX_EXACT_DOUBLE_DIGITS} significant digits and
+     * a small decimal exponent, which is what the server sends for most FLOAT and DOUBLE values, are converted without creating a String: the digits are
+     * collected into a long and scaled by an exact power of ten, which gives the same correctly rounded result as {@link Double#parseDouble(String)}.
+     * Anything else falls back to {@link Double#parseDouble(String)}.
+     * 
+     * @param bytes
+     *            buffer holding the value
+     * @param offset
+     *            offset of the value in the buffer
+     * @param length
+     *            length of the value
+     * @return the value
+     */
+    public static double getDouble(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int pos = offset;
+        boolean negative = false;
+
+        if (pos < end && (bytes[pos] == '-' || bytes[pos] == '+')) {
+            negative = bytes[pos] == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+
+        for (; pos < end; pos++) {
+            byte b = bytes[pos];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    // leading zeroes aren't significant
+                    if (seenPoint) {
+                        scale--;
+                    }
+                    continue;
+                }
+                if (++digits > MAX_EXACT_DOUBLE_DIGITS) {
+                    return parseDouble(bytes, offset, length);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) {
+                    scale--;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+
+        if (!seenDigit) {
+            return parseDouble(bytes, offset, length);
+        }
+
+        if (pos < end) {
+            if (bytes[pos] != 'e' && bytes[pos] != 'E') {
+                return parseDouble(bytes, offset, length);
+            }
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (bytes[pos] == '-' || bytes[pos] == '+')) {
+                negativeExponent = bytes[pos] == '-';
+                pos++;
+            }
+            if (pos == end || end - pos > 3) {
+                return parseDouble(bytes, offset, length);
+            }
+            int exponent = 0;
+            for (; pos < end; pos++) {
+                byte b = bytes[pos];
+                if (b < '0' || b > '9') {
+                    return parseDouble(bytes, offset, length);
+                }
+                exponent = exponent * 10 + (b - '0');
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (scale == 0) {
+            value = mantissa;
+        } else if (scale > 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            return parseDouble(bytes, offset, length);
+        }
+        return negative ? -value : value;
+    }
+
+    private static double parseDouble(byte[] bytes, int offset, int length) {
         return Double.parseDouble(StringUtils.toAsciiString(bytes, offset, length));
     }
 
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj.protocol.a;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.PropertySet;
+import com.mysql.cj.exceptions.CJCommunicationsException;
+import com.mysql.cj.exceptions.ExceptionInterceptor;
+import com.mysql.cj.exceptions.FeatureNotAvailableException;
+import com.mysql.cj.exceptions.SSLParamsException;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.AbstractSocketConnection;
+import com.mysql.cj.protocol.AsyncSocketFactory;
+import com.mysql.cj.protocol.FullReadInputStream;
+import com.mysql.cj.protocol.SerializingBufferWriter;
+import com.mysql.cj.protocol.ServerSession;
+import com.mysql.cj.protocol.SocketConnection;
+import com.mysql.cj.protocol.TlsAsynchronousSocketChannel;
+
+/**
+ * A classic protocol connection over an {@link AsynchronousSocketChannel}, used when 'useAsyncSocketChannel' is enabled.
+ * 
+ * The regular, blocking protocol code reads and writes through streams that wait for the channel operations to complete, so everything works as over a
+ * {@link java.net.Socket}. In addition the channel allows {@link AsyncCommandPipeline} to send commands and read their responses without blocking the caller.
+ * All writes, blocking or not, go through one {@link SerializingBufferWriter} so that they reach the server in the order they were issued.
+ */
+public class NativeAsyncSocketConnection extends AbstractSocketConnection implements SocketConnection {
+
+    private AsynchronousSocketChannel channel;
+    private SerializingBufferWriter bufferWriter;
+    private int soTimeout = 0;
+
+    @Override
+    public void connect(String hostName, int portNumber, PropertySet propSet, ExceptionInterceptor excInterceptor, Log log, int loginTimeout) {
+        this.port = portNumber;
+        this.host = hostName;
+        this.propertySet = propSet;
+        this.exceptionInterceptor = excInterceptor;
+        this.socketFactory = new AsyncSocketFactory();
+
+        try {
+            this.channel = this.socketFactory.connect(hostName, portNumber, propSet, loginTimeout);
+        } catch (CJCommunicationsException e) {
+            throw e;
+        } catch (IOException | RuntimeException ex) {
+            throw new CJCommunicationsException(ex);
+        }
+
+        this.soTimeout = propSet.getIntegerProperty(PropertyKey.socketTimeout).getValue();
+        this.bufferWriter = new SerializingBufferWriter(this.channel);
+        createStreams();
+    }
+
+    @Override
+    public void performTlsHandshake(ServerSession serverSession) throws SSLParamsException, FeatureNotAvailableException, IOException {
+        this.channel = this.socketFactory.performTlsHandshake(this, serverSession);
+        this.bufferWriter.setChannel(this.channel);
+        createStreams();
+    }
+
+    private void createStreams() {
+        this.mysqlInput = new FullReadInputStream(new BufferedInputStream(new ChannelInputStream(), 16384));
+        this.mysqlOutput = new BufferedOutputStream(new ChannelOutputStream(), 16384);
+    }
+
+    @Override
+    public AsynchronousSocketChannel getAsynchronousSocketChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Get the writer that serializes all writes to the channel.
+     * 
+     * @return {@link SerializingBufferWriter}
+     */
+    public SerializingBufferWriter getBufferWriter() {
+        return this.bufferWriter;
+    }
+
+    /**
+     * Get the timeout of a single read from the channel.
+     * 
+     * @return timeout in milliseconds, 0 if reads never time out
+     */
+    public int getSoTimeout() {
+        return this.soTimeout;
+    }
+
+    /**
+     * Set the timeout of a single read from the channel. Unlike {@link java.net.Socket#setSoTimeout(int)} the channel can't be used any more once a read
+     * timed out. Reads over TLS don't time out.
+     * 
+     * @param soTimeout
+     *            timeout in milliseconds, 0 for no timeout
+     */
+    public void setSoTimeout(int soTimeout) {
+        this.soTimeout = soTimeout;
+    }
+
+    @Override
+    public boolean isSSLEstablished() {
+        return this.channel instanceof TlsAsynchronousSocketChannel;
+    }
+
+    @Override
+    public void forceClose() {
+        try {
+            if (this.channel != null && this.channel.isOpen()) {
+                this.channel.close();
+            }
+        } catch (IOException e) {
+            // ignore
+        } finally {
+            this.mysqlInput = null;
+            this.mysqlOutput = null;
+        }
+    }
+
+    /**
+     * Wait for a channel operation started with the given future's completion handler.
+     * 
+     * @param future
+     *            future completed by the handler
+     * @return the operation result
+     * @throws IOException
+     *             if the operation failed or timed out
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InterruptedByTimeoutException) {
+                SocketTimeoutException timeoutEx = new SocketTimeoutException("Read timed out");
+                timeoutEx.initCause(cause);
+                throw timeoutEx;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static <T> CompletionHandler<T, Void> completing(CompletableFuture<T> future) {
+        return new CompletionHandler<T, Void>() {
+            public void completed(T result, Void attachment) {
+                future.complete(result);
+            }
+
+            public void failed(Throwable exc, Void attachment) {
+                future.completeExceptionally(exc);
+            }
+        };
+    }
+
+    /**
+     * Blocking reads from the channel.
+     */
+    private class ChannelInputStream extends InputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            return read(this.single, 0, 1) < 0 ? -1 : this.single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n;
+            do {
+                CompletableFuture<Integer> read = new CompletableFuture<>();
+                NativeAsyncSocketConnection.this.channel.read(ByteBuffer.wrap(b, off, len), NativeAsyncSocketConnection.this.soTimeout, TimeUnit.MILLISECONDS,
+                        null, completing(read));
+                n = await(read);
+            } while (n == 0);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            NativeAsyncSocketConnection.this.channel.close();
+        }
+    }
+
+    /**
+     * Blocking writes to the channel, queued behind any asynchronous writes already issued.
+     */
+    private class ChannelOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            CompletableFuture<Long> written = new CompletableFuture<>();
+            NativeAsyncSocketConnection.this.bufferWriter.queueBuffer(ByteBuffer.wrap(b, off, len), completing(written));
+            await(written);
+        }
+
+        @Override
+        public void close() throws IOException {
+            NativeAsyncSocketConnection.this.channel.close();
+        }
+    }
+}
@@ -53,6 +53,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import com.mysql.cj.CharsetMapping;
@@ -145,6 +146,8 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
     protected NativePacketPayload sharedSendPacket = null;
     /** Use this when reading in rows to avoid thousands of new() calls, because the byte arrays just get copied out of the packet anyway */
     protected NativePacketPayload reusablePacket = null;
+    /** Buffers for packets that are done with once a command or row is processed, null unless 'usePacketBufferPool' is enabled */
+    protected PacketBufferPool packetBufferPool = null;
 
     /**
      * Packet used for 'LOAD DATA LOCAL INFILE'
@@ -153,6 +156,9 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
      */
     private SoftReference<NativePacketPayload> loadFileBufRef;
 
+    /** Commands sent without waiting for their response, created on first use if 'useAsyncSocketChannel' is enabled */
+    private AsyncCommandPipeline asyncCommandPipeline = null;
+
     protected byte packetSequence = 0;
     protected boolean useCompression = false;
 
@@ -256,9 +262,13 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
         this.reusablePacket = new NativePacketPayload(INITIAL_PACKET_SIZE);
         //this.sendPacket = new Buffer(INITIAL_PACKET_SIZE);
 
+        if (this.propertySet.getBooleanProperty(PropertyKey.usePacketBufferPool).getValue()) {
+            this.packetBufferPool = new PacketBufferPool(this.propertySet.getMemorySizeProperty(PropertyKey.packetBufferPoolMaxSize).getValue());
+        }
+
         try {
             this.packetSender = new SimplePacketSender(this.socketConnection.getMysqlOutput());
-            this.packetReader = new SimplePacketReader(this.socketConnection, this.maxAllowedPacket);
+            this.packetReader = new SimplePacketReader(this.socketConnection, this.maxAllowedPacket, this.packetBufferPool);
         } catch (IOException ioEx) {
             throw ExceptionFactory.createCommunicationsException(this.propertySet, this.serverSession, this.getPacketSentTimeHolder(),
                     this.getPacketReceivedTimeHolder(), ioEx, getExceptionInterceptor());
@@ -330,7 +340,7 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
 
             // i/o streams were replaced, build new packet sender/reader
             this.packetSender = new SimplePacketSender(this.socketConnection.getMysqlOutput());
-            this.packetReader = new SimplePacketReader(this.socketConnection, this.maxAllowedPacket);
+            this.packetReader = new SimplePacketReader(this.socketConnection, this.maxAllowedPacket, this.packetBufferPool);
 
         } catch (FeatureNotAvailableException nae) {
             throw new CJConnectionFeatureNotAvailableException(this.getPropertySet(), this.serverSession, this.getPacketSentTimeHolder(), nae);
@@ -574,6 +584,10 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
 
     @Override
     public final NativePacketPayload sendCommand(Message queryPacket, boolean skipCheck, int timeoutMillis) {
+        if (this.asyncCommandPipeline != null) {
+            this.asyncCommandPipeline.awaitIdle();
+        }
+
         int command = queryPacket.getByteBuffer()[0];
         this.commandCount++;
 
@@ -591,8 +605,8 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
 
         if (timeoutMillis != 0) {
             try {
-                oldTimeout = this.socketConnection.getMysqlSocket().getSoTimeout();
-                this.socketConnection.getMysqlSocket().setSoTimeout(timeoutMillis);
+                oldTimeout = getSoTimeout();
+                setSoTimeout(timeoutMillis);
             } catch (IOException e) {
                 throw ExceptionFactory.createCommunicationsException(this.propertySet, this.serverSession, this.getPacketSentTimeHolder(),
                         this.getPacketReceivedTimeHolder(), e, getExceptionInterceptor());
@@ -658,7 +672,7 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
         } finally {
             if (timeoutMillis != 0) {
                 try {
-                    this.socketConnection.getMysqlSocket().setSoTimeout(oldTimeout);
+                    setSoTimeout(oldTimeout);
                 } catch (IOException e) {
                     throw ExceptionFactory.createCommunicationsException(this.propertySet, this.serverSession, this.getPacketSentTimeHolder(),
                             this.getPacketReceivedTimeHolder(), e, getExceptionInterceptor());
@@ -667,6 +681,44 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
         }
     }
 
+    private int getSoTimeout() throws IOException {
+        if (this.socketConnection instanceof NativeAsyncSocketConnection) {
+            return ((NativeAsyncSocketConnection) this.socketConnection).getSoTimeout();
+        }
+        return this.socketConnection.getMysqlSocket().getSoTimeout();
+    }
+
+    private void setSoTimeout(int timeoutMillis) throws IOException {
+        if (this.socketConnection instanceof NativeAsyncSocketConnection) {
+            ((NativeAsyncSocketConnection) this.socketConnection).setSoTimeout(timeoutMillis);
+        } else {
+            this.socketConnection.getMysqlSocket().setSoTimeout(timeoutMillis);
+        }
+    }
+
+    /**
+     * Send a command without waiting for its response. Only commands answered with an OK or ERR packet, i.e. data modification statements, can be sent this
+     * way. Blocking commands sent later wait for the response of this one first.
+     * 
+     * @param queryPacket
+     *            command payload
+     * @return future completed with the OK packet of the command, or failed with the error
+     */
+    public CompletableFuture<OkPacket> sendCommandAsync(NativePacketPayload queryPacket) {
+        if (this.asyncCommandPipeline == null) {
+            if (!(this.socketConnection instanceof NativeAsyncSocketConnection) || this.useCompression || this.queryInterceptors != null) {
+                throw ExceptionFactory.createException(CJOperationNotSupportedException.class, Messages.getString("AsyncCommandPipeline.0"),
+                        getExceptionInterceptor());
+            }
+            this.asyncCommandPipeline = new AsyncCommandPipeline(this, (NativeAsyncSocketConnection) this.socketConnection);
+        }
+
+        checkForOutstandingStreamingData();
+        this.commandCount++;
+
+        return this.asyncCommandPipeline.submit(queryPacket, queryPacket.getPosition());
+    }
+
     public void checkTransactionState() {
         int transState = this.serverSession.getTransactionState();
         if (transState == ServerSession.TRANSACTION_COMPLETED) {
@@ -721,72 +773,85 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
 
         // Error handling
         if (statusCode == (byte) 0xff) {
-            String serverErrorMessage;
-            int errno = 2000;
+            clearInputStream();
 
-            errno = (int) resultPacket.readInteger(IntegerDataType.INT2);
+            throw createErrorException(resultPacket, true);
+        }
+    }
+
+    /**
+     * Build the exception for an ERR packet.
+     * 
+     * @param resultPacket
+     *            the ERR packet
+     * @param appendDeadlockStatus
+     *            whether deadlock and lock wait timeout errors may be amended with InnoDB status, which queries the server
+     * @return the exception to throw
+     */
+    CJException createErrorException(NativePacketPayload resultPacket, boolean appendDeadlockStatus) {
+        resultPacket.setPosition(1); // skip the packet signature
+        String serverErrorMessage;
+        int errno = (int) resultPacket.readInteger(IntegerDataType.INT2);
 
-            String xOpen = null;
+        String xOpen = null;
 
-            serverErrorMessage = resultPacket.readString(StringSelfDataType.STRING_TERM, this.serverSession.getErrorMessageEncoding());
+        serverErrorMessage = resultPacket.readString(StringSelfDataType.STRING_TERM, this.serverSession.getErrorMessageEncoding());
 
-            if (serverErrorMessage.charAt(0) == '#') {
+        if (serverErrorMessage.charAt(0) == '#') {
 
-                // we have an SQLState
-                if (serverErrorMessage.length() > 6) {
-                    xOpen = serverErrorMessage.substring(1, 6);
-                    serverErrorMessage = serverErrorMessage.substring(6);
+            // we have an SQLState
+            if (serverErrorMessage.length() > 6) {
+                xOpen = serverErrorMessage.substring(1, 6);
+                serverErrorMessage = serverErrorMessage.substring(6);
 
-                    if (xOpen.equals("HY000")) {
-                        xOpen = MysqlErrorNumbers.mysqlToSqlState(errno);
-                    }
-                } else {
+                if (xOpen.equals("HY000")) {
                     xOpen = MysqlErrorNumbers.mysqlToSqlState(errno);
                 }
             } else {
                 xOpen = MysqlErrorNumbers.mysqlToSqlState(errno);
             }
+        } else {
+            xOpen = MysqlErrorNumbers.mysqlToSqlState(errno);
+        }
 
-            clearInputStream();
-
-            StringBuilder errorBuf = new StringBuilder();
+        StringBuilder errorBuf = new StringBuilder();
 
-            String xOpenErrorMessage = MysqlErrorNumbers.get(xOpen);
+        String xOpenErrorMessage = MysqlErrorNumbers.get(xOpen);
 
-            boolean useOnlyServerErrorMessages = this.propertySet.getBooleanProperty(PropertyKey.useOnlyServerErrorMessages).getValue();
-            if (!useOnlyServerErrorMessages) {
-                if (xOpenErrorMessage != null) {
-                    errorBuf.append(xOpenErrorMessage);
-                    errorBuf.append(Messages.getString("Protocol.0"));
-                }
+        boolean useOnlyServerErrorMessages = this.propertySet.getBooleanProperty(PropertyKey.useOnlyServerErrorMessages).getValue();
+        if (!useOnlyServerErrorMessages) {
+            if (xOpenErrorMessage != null) {
+                errorBuf.append(xOpenErrorMessage);
+                errorBuf.append(Messages.getString("Protocol.0"));
             }
+        }
 
-            errorBuf.append(serverErrorMessage);
+        errorBuf.append(serverErrorMessage);
 
-            if (!useOnlyServerErrorMessages) {
-                if (xOpenErrorMessage != null) {
-                    errorBuf.append("\"");
-                }
+        if (!useOnlyServerErrorMessages) {
+            if (xOpenErrorMessage != null) {
+                errorBuf.append("\"");
             }
+        }
 
+        if (appendDeadlockStatus) {
             appendDeadlockStatusInformation(this.session, xOpen, errorBuf);
+        }
 
-            if (xOpen != null) {
-                if (xOpen.startsWith("22")) {
-                    throw new DataTruncationException(errorBuf.toString(), 0, true, false, 0, 0, errno);
-                }
-
-                if (errno == MysqlErrorNumbers.ER_MUST_CHANGE_PASSWORD) {
-                    throw ExceptionFactory.createException(PasswordExpiredException.class, errorBuf.toString(), getExceptionInterceptor());
-
-                } else if (errno == MysqlErrorNumbers.ER_MUST_CHANGE_PASSWORD_LOGIN) {
-                    throw ExceptionFactory.createException(ClosedOnExpiredPasswordException.class, errorBuf.toString(), getExceptionInterceptor());
-                }
+        if (xOpen != null) {
+            if (xOpen.startsWith("22")) {
+                return new DataTruncationException(errorBuf.toString(), 0, true, false, 0, 0, errno);
             }
 
-            throw ExceptionFactory.createException(errorBuf.toString(), xOpen, errno, false, null, getExceptionInterceptor());
+            if (errno == MysqlErrorNumbers.ER_MUST_CHANGE_PASSWORD) {
+                return ExceptionFactory.createException(PasswordExpiredException.class, errorBuf.toString(), getExceptionInterceptor());
 
+            } else if (errno == MysqlErrorNumbers.ER_MUST_CHANGE_PASSWORD_LOGIN) {
+                return ExceptionFactory.createException(ClosedOnExpiredPasswordException.class, errorBuf.toString(), getExceptionInterceptor());
+            }
         }
+
+        return ExceptionFactory.createException(errorBuf.toString(), xOpen, errno, false, null, getExceptionInterceptor());
     }
 
     private void reclaimLargeSharedSendPacket() {
@@ -865,7 +930,9 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
 
         // TODO decide how to safely use the shared this.sendPacket
         //if (this.sendPacket == null) {
-        NativePacketPayload sendPacket = new NativePacketPayload(packLength);
+        // Query interceptors get a LazyString over the packet buffer and may keep it, so only pool the packet without them
+        boolean pooled = this.packetBufferPool != null && this.queryInterceptors == null;
+        NativePacketPayload sendPacket = pooled ? this.packetBufferPool.acquirePayload(packLength) : new NativePacketPayload(packLength);
         //}
 
         sendPacket.setPosition(0);
@@ -884,7 +951,13 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
             sendPacket.writeBytes(StringLengthDataType.STRING_FIXED, StringUtils.getBytes(query, characterEncoding));
         }
 
-        return sendQueryPacket(callingQuery, sendPacket, maxRows, streamResults, cachedMetadata, resultSetFactory);
+        try {
+            return sendQueryPacket(callingQuery, sendPacket, maxRows, streamResults, cachedMetadata, resultSetFactory);
+        } finally {
+            if (pooled) {
+                this.packetBufferPool.releasePayload(sendPacket);
+            }
+        }
     }
 
     /**
@@ -1204,11 +1277,12 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
     public final void quit() {
         try {
             try {
-                if (!ExportControlled.isSSLEstablished(this.socketConnection.getMysqlSocket())) { // Fix for Bug#56979 does not apply to secure sockets.
-                    if (!this.socketConnection.getMysqlSocket().isClosed()) {
+                Socket soc = this.socketConnection.getMysqlSocket();
+                if (soc != null && !ExportControlled.isSSLEstablished(soc)) { // Fix for Bug#56979 does not apply to secure sockets.
+                    if (!soc.isClosed()) {
                         try {
                             // The response won't be read, this fixes BUG#56979 [Improper connection closing logic leads to TIME_WAIT sockets on server].
-                            this.socketConnection.getMysqlSocket().shutdownInput();
+                            soc.shutdownInput();
                         } catch (UnsupportedOperationException e) {
                             // Ignore, some sockets do not support this method.
                         }
@@ -1316,6 +1390,10 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
     }
 
     public void setSocketTimeout(int milliseconds) {
+        if (this.socketConnection instanceof NativeAsyncSocketConnection) {
+            ((NativeAsyncSocketConnection) this.socketConnection).setSoTimeout(milliseconds);
+            return;
+        }
         try {
             Socket soc = this.socketConnection.getMysqlSocket();
             if (soc != null) {
@@ -1354,6 +1432,28 @@ public class NativeProtocol extends AbstractProtocol<NativePacketPayload> implem
         return this.reusablePacket;
     }
 
+    /**
+     * Get the packet buffer pool of this connection.
+     * 
+     * @return {@link PacketBufferPool} or null if 'usePacketBufferPool' is disabled
+     */
+    public PacketBufferPool getPacketBufferPool() {
+        return this.packetBufferPool;
+    }
+
+    /**
+     * Return the buffer of a packet that was read without a reusable packet and is no longer referenced, e.g. a row whose values were copied out.
+     * Does nothing if 'usePacketBufferPool' is disabled.
+     * 
+     * @param packet
+     *            packet to release
+     */
+    public void releasePacket(NativePacketPayload packet) {
+        if (this.packetBufferPool != null && packet != null && packet != this.reusablePacket && packet != this.sharedSendPacket) {
+            this.packetBufferPool.releasePayload(packet);
+        }
+    }
+
     public int getWarningCount() {
         return this.warningCount;
     }
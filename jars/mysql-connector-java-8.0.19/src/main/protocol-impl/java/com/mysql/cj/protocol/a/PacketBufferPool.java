@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj.protocol.a;
+
+/**
+ * A pool of packet buffers, used when 'usePacketBufferPool' is enabled.
+ * 
+ * Buffers are grouped in power-of-two size classes from {@link #MIN_BUFFER_SIZE} up to the configured maximum, and each class keeps at most
+ * {@link #BUFFERS_PER_SIZE} free buffers. {@link #acquire(int)} hands out a buffer at least as large as requested, so callers must track the payload length
+ * separately from the array length, as {@link NativePacketPayload} does. Only arrays whose length is exactly one of the size classes are taken back by
+ * {@link #release(byte[])}, which makes it safe to release a payload whose buffer has been replaced after it was acquired.
+ * 
+ * A pool belongs to one connection and, like the rest of the protocol, is not thread-safe.
+ */
+public class PacketBufferPool {
+
+    public static final int MIN_BUFFER_SIZE = 256;
+    public static final int BUFFERS_PER_SIZE = 4;
+
+    private final int maxBufferSize;
+    private final byte[][][] free;
+    private final int[] freeCount;
+
+    private long acquired = 0;
+    private long reused = 0;
+    private long released = 0;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxBufferSize
+     *            the largest buffer kept for reuse, rounded up to a power of two
+     */
+    public PacketBufferPool(int maxBufferSize) {
+        this.maxBufferSize = roundUp(Math.max(maxBufferSize, MIN_BUFFER_SIZE));
+        int classes = sizeClass(this.maxBufferSize) + 1;
+        this.free = new byte[classes][BUFFERS_PER_SIZE][];
+        this.freeCount = new int[classes];
+    }
+
+    /**
+     * Get a buffer of at least the given size. The content of the buffer is undefined.
+     * 
+     * @param minSize
+     *            required size in bytes
+     * @return a pooled buffer, or a new exactly sized one if minSize is larger than the biggest size class
+     */
+    public byte[] acquire(int minSize) {
+        this.acquired++;
+        if (minSize > this.maxBufferSize) {
+            return new byte[minSize];
+        }
+        int sizeClass = sizeClass(minSize);
+        if (this.freeCount[sizeClass] > 0) {
+            this.reused++;
+            int top = --this.freeCount[sizeClass];
+            byte[] buffer = this.free[sizeClass][top];
+            this.free[sizeClass][top] = null;
+            return buffer;
+        }
+        return new byte[MIN_BUFFER_SIZE << sizeClass];
+    }
+
+    /**
+     * Return a buffer to the pool. Buffers that don't match a size class, or whose size class is full, are left to the garbage collector.
+     * The caller must not use the buffer afterwards.
+     * 
+     * @param buffer
+     *            buffer to return, may be null
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null || buffer.length < MIN_BUFFER_SIZE || buffer.length > this.maxBufferSize || Integer.bitCount(buffer.length) != 1) {
+            return;
+        }
+        int sizeClass = sizeClass(buffer.length);
+        if (this.freeCount[sizeClass] < BUFFERS_PER_SIZE) {
+            this.released++;
+            this.free[sizeClass][this.freeCount[sizeClass]++] = buffer;
+        }
+    }
+
+    /**
+     * Get a payload backed by a pooled buffer, positioned at 0 and with an empty payload.
+     * 
+     * @param minSize
+     *            required size in bytes
+     * @return {@link NativePacketPayload}
+     */
+    public NativePacketPayload acquirePayload(int minSize) {
+        NativePacketPayload payload = new NativePacketPayload(acquire(minSize));
+        payload.setPayloadLength(0);
+        return payload;
+    }
+
+    /**
+     * Return the buffer of a payload acquired from this pool.
+     * 
+     * @param payload
+     *            payload, may be null
+     */
+    public void releasePayload(NativePacketPayload payload) {
+        if (payload != null) {
+            release(payload.getByteBuffer());
+        }
+    }
+
+    /**
+     * Drop every free buffer.
+     */
+    public void clear() {
+        for (int i = 0; i < this.free.length; i++) {
+            for (int j = 0; j < this.freeCount[i]; j++) {
+                this.free[i][j] = null;
+            }
+            this.freeCount[i] = 0;
+        }
+    }
+
+    public int getMaxBufferSize() {
+        return this.maxBufferSize;
+    }
+
+    /**
+     * @return number of buffers handed out
+     */
+    public long getAcquiredCount() {
+        return this.acquired;
+    }
+
+    /**
+     * @return number of buffers handed out that came from the pool rather than a new allocation
+     */
+    public long getReusedCount() {
+        return this.reused;
+    }
+
+    /**
+     * @return number of buffers taken back into the pool
+     */
+    public long getReleasedCount() {
+        return this.released;
+    }
+
+    private static int sizeClass(int size) {
+        if (size <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    }
+
+    private static int roundUp(int size) {
+        int highest = Integer.highestOneBit(size);
+        return highest == size ? size : highest << 1;
+    }
+}
@@ -38,6 +38,7 @@ import com.mysql.cj.conf.RuntimeProperty;
 import com.mysql.cj.protocol.ProtocolEntityFactory;
 import com.mysql.cj.protocol.ProtocolEntityReader;
 import com.mysql.cj.protocol.ResultsetRow;
+import com.mysql.cj.protocol.a.result.ByteArrayRow;
 
 public class ResultsetRowReader implements ProtocolEntityReader<ResultsetRow, NativePacketPayload> {
 
@@ -81,10 +82,16 @@ public class ResultsetRowReader implements ProtocolEntityReader<ResultsetRow, Na
         if (!this.protocol.getServerSession().isEOFDeprecated() && rowPacket.isEOFPacket()
                 || this.protocol.getServerSession().isEOFDeprecated() && rowPacket.isResultSetOKPacket()) {
             this.protocol.readServerStatusForResultSets(rowPacket, true);
+            this.protocol.releasePacket(rowPacket);
             return null;
         }
 
-        return sf.createFromMessage(rowPacket);
+        ResultsetRow row = sf.createFromMessage(rowPacket);
+        // Buffer rows keep reading from the packet, the values of a ByteArrayRow have been copied out of it
+        if (row instanceof ByteArrayRow) {
+            this.protocol.releasePacket(rowPacket);
+        }
+        return row;
     }
 
 }
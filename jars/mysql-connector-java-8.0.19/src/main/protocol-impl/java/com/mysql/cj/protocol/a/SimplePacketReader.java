@@ -46,12 +46,28 @@ public class SimplePacketReader implements MessageReader<NativePacketHeader, Nat
 
     protected SocketConnection socketConnection;
     protected RuntimeProperty<Integer> maxAllowedPacket;
+    protected PacketBufferPool packetBufferPool;
 
     private byte readPacketSequence = -1;
 
     public SimplePacketReader(SocketConnection socketConnection, RuntimeProperty<Integer> maxAllowedPacket) {
+        this(socketConnection, maxAllowedPacket, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param socketConnection
+     *            {@link SocketConnection}
+     * @param maxAllowedPacket
+     *            max allowed packet size
+     * @param packetBufferPool
+     *            pool to take buffers from when no packet is given for reuse, or null to allocate a new buffer for every packet
+     */
+    public SimplePacketReader(SocketConnection socketConnection, RuntimeProperty<Integer> maxAllowedPacket, PacketBufferPool packetBufferPool) {
         this.socketConnection = socketConnection;
         this.maxAllowedPacket = maxAllowedPacket;
+        this.packetBufferPool = packetBufferPool;
     }
 
     @Override
@@ -100,6 +116,10 @@ public class SimplePacketReader implements MessageReader<NativePacketHeader, Nat
 
                 // Set the new length
                 buf.setPayloadLength(packetLength);
+            } else if (this.packetBufferPool != null) {
+                // Pooled buffers can be larger than the packet
+                buf = new NativePacketPayload(this.packetBufferPool.acquire(packetLength));
+                buf.setPayloadLength(packetLength);
             } else {
                 buf = new NativePacketPayload(new byte[packetLength]);
             }
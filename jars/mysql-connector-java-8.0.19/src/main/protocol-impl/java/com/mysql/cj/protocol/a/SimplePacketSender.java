@@ -40,6 +40,7 @@ import com.mysql.cj.protocol.MessageSender;
  */
 public class SimplePacketSender implements MessageSender<NativePacketPayload> {
     private BufferedOutputStream outputStream;
+    private final byte[] header = new byte[NativeConstants.HEADER_LENGTH];
 
     public SimplePacketSender(BufferedOutputStream outputStream) {
         this.outputStream = outputStream;
@@ -48,8 +49,12 @@ public class SimplePacketSender implements MessageSender<NativePacketPayload> {
     public void send(byte[] packet, int packetLen, byte packetSequence) throws IOException {
         PacketSplitter packetSplitter = new PacketSplitter(packetLen);
         while (packetSplitter.nextPacket()) {
-            this.outputStream.write(NativeUtils.encodeMysqlThreeByteInteger(packetSplitter.getPacketLen()));
-            this.outputStream.write(packetSequence++);
+            int len = packetSplitter.getPacketLen();
+            this.header[0] = (byte) len;
+            this.header[1] = (byte) (len >>> 8);
+            this.header[2] = (byte) (len >>> 16);
+            this.header[3] = packetSequence++;
+            this.outputStream.write(this.header);
             this.outputStream.write(packet, packetSplitter.getOffset(), packetSplitter.getPacketLen());
         }
         this.outputStream.flush();
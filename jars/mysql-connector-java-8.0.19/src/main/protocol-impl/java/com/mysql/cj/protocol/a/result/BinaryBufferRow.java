@@ -228,9 +228,32 @@ public class BinaryBufferRow extends AbstractBufferRow {
      */
     @Override
     public <T> T getValue(int columnIndex, ValueFactory<T> vf) {
+        int length = seekToValue(columnIndex);
+        return getValueFromBytes(columnIndex, this.rowFromServer.getByteBuffer(), this.rowFromServer.getPosition(), length, vf);
+    }
+
+    @Override
+    public long getLong(int columnIndex) {
+        int length = seekToValue(columnIndex);
+        return getLongFromBytes(columnIndex, this.rowFromServer.getByteBuffer(), this.rowFromServer.getPosition(), length);
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        int length = seekToValue(columnIndex);
+        return getDoubleFromBytes(columnIndex, this.rowFromServer.getByteBuffer(), this.rowFromServer.getPosition(), length);
+    }
+
+    /**
+     * Position the row buffer at the value of the given column.
+     * 
+     * @param columnIndex
+     *            index of column (0-indexed)
+     * @return the length of the value; field length is type-specific in binary-encoded results
+     */
+    private int seekToValue(int columnIndex) {
         findAndSeekToOffset(columnIndex);
 
-        // field length is type-specific in binary-encoded results
         int type = this.metadata.getFields()[columnIndex].getMysqlTypeId();
         int length = NativeUtils.getBinaryEncodedLength(type);
         if (!getNull(columnIndex)) {
@@ -241,7 +264,7 @@ public class BinaryBufferRow extends AbstractBufferRow {
                         Messages.getString("MysqlIO.97", new Object[] { type, columnIndex + 1, this.metadata.getFields().length }), this.exceptionInterceptor);
             }
         }
-        return getValueFromBytes(columnIndex, this.rowFromServer.getByteBuffer(), this.rowFromServer.getPosition(), length, vf);
+        return length;
     }
 
     @Override
@@ -90,4 +90,18 @@ public class ByteArrayRow extends AbstractResultsetRow {
         int length = columnData == null ? 0 : columnData.length;
         return getValueFromBytes(columnIndex, columnData, 0, length, vf);
     }
+
+    @Override
+    public long getLong(int columnIndex) {
+        byte[] columnData = this.internalRowData[columnIndex];
+        int length = columnData == null ? 0 : columnData.length;
+        return getLongFromBytes(columnIndex, columnData, 0, length);
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        byte[] columnData = this.internalRowData[columnIndex];
+        int length = columnData == null ? 0 : columnData.length;
+        return getDoubleFromBytes(columnIndex, columnData, 0, length);
+    }
 }
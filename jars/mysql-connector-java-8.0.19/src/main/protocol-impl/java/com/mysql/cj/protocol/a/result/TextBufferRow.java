@@ -42,7 +42,7 @@ import com.mysql.cj.result.ValueFactory;
  * A ResultSetRow implementation that holds one row packet (which is re-used by the driver, and thus saves memory allocations), and tries when possible to avoid
  * allocations to break out the results as individual byte[]s.
  * 
- * (this isn't possible when doing things like reading floating point values).
+ * Integer and floating point values read with {@link #getLong(int)} and {@link #getDouble(int)} are decoded in place from the packet.
  */
 public class TextBufferRow extends AbstractBufferRow {
 
@@ -131,4 +131,18 @@ public class TextBufferRow extends AbstractBufferRow {
         int length = (int) this.rowFromServer.readInteger(IntegerDataType.INT_LENENC);
         return getValueFromBytes(columnIndex, this.rowFromServer.getByteBuffer(), this.rowFromServer.getPosition(), length, vf);
     }
+
+    @Override
+    public long getLong(int columnIndex) {
+        findAndSeekToOffset(columnIndex);
+        int length = (int) this.rowFromServer.readInteger(IntegerDataType.INT_LENENC);
+        return getLongFromBytes(columnIndex, this.rowFromServer.getByteBuffer(), this.rowFromServer.getPosition(), length);
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        findAndSeekToOffset(columnIndex);
+        int length = (int) this.rowFromServer.readInteger(IntegerDataType.INT_LENENC);
+        return getDoubleFromBytes(columnIndex, this.rowFromServer.getByteBuffer(), this.rowFromServer.getPosition(), length);
+    }
 }
@@ -31,6 +31,7 @@ package com.mysql.cj.jdbc;
 
 import java.math.BigInteger;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 import com.mysql.cj.MysqlType;
 import com.mysql.cj.ParseInfo;
@@ -75,4 +76,14 @@ public interface JdbcPreparedStatement extends java.sql.PreparedStatement, JdbcS
     void setNull(int parameterIndex, MysqlType mysqlType) throws SQLException;
 
     ParameterBindings getParameterBindings() throws SQLException;
+
+    /**
+     * Executes this statement with the current parameters without waiting for the server to answer, see {@link JdbcStatement#executeUpdateAsync(String)}.
+     * Parameters can be changed and the statement executed again as soon as this method returns. Not supported by server-side prepared statements.
+     * 
+     * @return a future completed with the first update count of the statement, or failed with an {@link SQLException}
+     * @throws SQLException
+     *             if the statement can't be sent
+     */
+    CompletableFuture<Long> executeUpdateAsync() throws SQLException;
 }
@@ -31,6 +31,7 @@ package com.mysql.cj.jdbc;
 
 import java.io.InputStream;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 import com.mysql.cj.PingTarget;
 import com.mysql.cj.Query;
@@ -99,6 +100,24 @@ public interface JdbcStatement extends java.sql.Statement, Query {
      */
     InputStream getLocalInfileInputStream();
 
+    /**
+     * Executes the given INSERT, UPDATE or DELETE statement, or any other statement that returns nothing, without waiting for the server to answer.
+     * 
+     * Needs 'useAsyncSocketChannel=true'. Statements are pipelined: several can be in flight on the connection, and the server executes them in the order
+     * they were issued. Any other use of the connection waits until all of them are answered. The statement is executed in the connection's current
+     * database, and its outcome doesn't change this statement's update count, warnings or generated keys.
+     * 
+     * The future is completed on a driver thread. Dependent actions may use the connection, also blocking calls such as {@link java.sql.Connection#commit()},
+     * which wait for the statements still pending as any other use does. Actions attached to different statements can run concurrently.
+     * 
+     * @param sql
+     *            an SQL Data Manipulation Language (DML) statement or an SQL statement that returns nothing
+     * @return a future completed with the first update count of the statement, or failed with an {@link SQLException}
+     * @throws SQLException
+     *             if the statement can't be sent, e.g. because the statement is closed or asynchronous execution isn't available on the connection
+     */
+    CompletableFuture<Long> executeUpdateAsync(String sql) throws SQLException;
+
     void setPingTarget(PingTarget pingTarget);
 
     ExceptionInterceptor getExceptionInterceptor();
@@ -51,6 +51,7 @@ import java.sql.Timestamp;
 import java.sql.Wrapper;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.concurrent.CompletableFuture;
 
 import com.mysql.cj.BindValue;
 import com.mysql.cj.CancelQueryTask;
@@ -1347,6 +1348,30 @@ public class ClientPreparedStatement extends com.mysql.cj.jdbc.StatementImpl imp
         return executeUpdateInternal(true, false);
     }
 
+    @Override
+    public CompletableFuture<Long> executeUpdateAsync() throws SQLException {
+        synchronized (checkClosed().getConnectionMutex()) {
+            if (this.connection.isReadOnly(false)) {
+                throw SQLError.createSQLException(Messages.getString("PreparedStatement.34") + Messages.getString("PreparedStatement.35"),
+                        MysqlErrorNumbers.SQL_STATE_ILLEGAL_ARGUMENT, this.exceptionInterceptor);
+            }
+
+            if ((((PreparedQuery<?>) this.query).getParseInfo().getFirstStmtChar() == 'S') && isSelectQuery()) {
+                throw SQLError.createSQLException(Messages.getString("PreparedStatement.37"), "01S03", this.exceptionInterceptor);
+            }
+
+            implicitlyCloseAllOpenResults();
+
+            NativePacketPayload sendPacket;
+            try {
+                sendPacket = ((PreparedQuery<?>) this.query).fillSendPacket();
+            } catch (CJException e) {
+                throw SQLExceptionsMapping.translateException(e, this.exceptionInterceptor);
+            }
+            return sendUpdateAsync(sendPacket);
+        }
+    }
+
     public ParameterBindings getParameterBindings() throws SQLException {
         synchronized (checkClosed().getConnectionMutex()) {
             return new ParameterBindingsImpl((PreparedQuery<?>) this.query, this.session, this.resultSetFactory);
@@ -90,7 +90,7 @@ import com.mysql.cj.jdbc.result.UpdatableResultSet;
 import com.mysql.cj.log.ProfilerEvent;
 import com.mysql.cj.log.StandardLogger;
 import com.mysql.cj.protocol.SocksProxySocketFactory;
-import com.mysql.cj.util.LRUCache;
+import com.mysql.cj.util.ConcurrentLRUCache;
 import com.mysql.cj.util.StringUtils;
 import com.mysql.cj.util.Util;
 
@@ -303,7 +303,7 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
      */
     private final CopyOnWriteArrayList<JdbcStatement> openStatements = new CopyOnWriteArrayList<>();
 
-    private LRUCache<CompoundCacheKey, CallableStatement.CallableStatementParamInfo> parsedCallableStatementCache;
+    private ConcurrentLRUCache<CompoundCacheKey, CallableStatement.CallableStatementParamInfo> parsedCallableStatementCache;
 
     /** The password we used */
     private String password = null;
@@ -315,7 +315,7 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
     private boolean readOnly = false;
 
     /** Cache of ResultSet metadata */
-    protected LRUCache<String, CachedResultSetMetaData> resultSetMetadataCache;
+    protected ConcurrentLRUCache<String, CachedResultSetMetaData> resultSetMetadataCache;
 
     /**
      * The type map for UDTs (not implemented, but used by some third-party
@@ -326,8 +326,8 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
     /** The user we're connected as */
     private String user = null;
 
-    private LRUCache<String, Boolean> serverSideStatementCheckCache;
-    private LRUCache<CompoundCacheKey, ServerPreparedStatement> serverSideStatementCache;
+    private ConcurrentLRUCache<String, Boolean> serverSideStatementCheckCache;
+    private ConcurrentLRUCache<CompoundCacheKey, ServerPreparedStatement> serverSideStatementCache;
 
     private HostInfo origHostInfo;
 
@@ -429,7 +429,7 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
             }
 
             if (this.propertySet.getBooleanProperty(PropertyKey.cacheCallableStmts).getValue()) {
-                this.parsedCallableStatementCache = new LRUCache<>(this.propertySet.getIntegerProperty(PropertyKey.callableStmtCacheSize).getValue());
+                this.parsedCallableStatementCache = new ConcurrentLRUCache<>(this.propertySet.getIntegerProperty(PropertyKey.callableStmtCacheSize).getValue());
             }
 
             if (this.propertySet.getBooleanProperty(PropertyKey.allowMultiQueries).getValue()) {
@@ -437,7 +437,7 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
             }
 
             if (this.propertySet.getBooleanProperty(PropertyKey.cacheResultSetMetadata).getValue()) {
-                this.resultSetMetadataCache = new LRUCache<>(this.propertySet.getIntegerProperty(PropertyKey.metadataCacheSize).getValue());
+                this.resultSetMetadataCache = new ConcurrentLRUCache<>(this.propertySet.getIntegerProperty(PropertyKey.metadataCacheSize).getValue());
             }
 
             if (this.propertySet.getStringProperty(PropertyKey.socksProxyHost).getStringValue() != null) {
@@ -516,22 +516,20 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
         boolean allowMultiQueries = this.propertySet.getBooleanProperty(PropertyKey.allowMultiQueries).getValue();
 
         if (this.cachePrepStmts.getValue()) {
-            synchronized (this.serverSideStatementCheckCache) {
-                Boolean flag = this.serverSideStatementCheckCache.get(sql);
+            Boolean flag = this.serverSideStatementCheckCache.get(sql);
 
-                if (flag != null) {
-                    return flag.booleanValue();
-                }
+            if (flag != null) {
+                return flag.booleanValue();
+            }
 
-                boolean canHandle = StringUtils.canHandleAsServerPreparedStatementNoCache(sql, getServerVersion(), allowMultiQueries,
-                        this.session.getServerSession().isNoBackslashEscapesSet(), this.session.getServerSession().useAnsiQuotedIdentifiers());
+            boolean canHandle = StringUtils.canHandleAsServerPreparedStatementNoCache(sql, getServerVersion(), allowMultiQueries,
+                    this.session.getServerSession().isNoBackslashEscapesSet(), this.session.getServerSession().useAnsiQuotedIdentifiers());
 
-                if (sql.length() < this.prepStmtCacheSqlLimit.getValue()) {
-                    this.serverSideStatementCheckCache.put(sql, canHandle ? Boolean.TRUE : Boolean.FALSE);
-                }
-
-                return canHandle;
+            if (sql.length() < this.prepStmtCacheSqlLimit.getValue()) {
+                this.serverSideStatementCheckCache.put(sql, canHandle ? Boolean.TRUE : Boolean.FALSE);
             }
+
+            return canHandle;
         }
 
         return StringUtils.canHandleAsServerPreparedStatementNoCache(sql, getServerVersion(), allowMultiQueries,
@@ -1047,34 +1045,18 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
             }
 
             if (this.useServerPrepStmts.getValue()) {
-                this.serverSideStatementCheckCache = new LRUCache<>(cacheSize);
+                this.serverSideStatementCheckCache = new ConcurrentLRUCache<>(cacheSize);
 
-                this.serverSideStatementCache = new LRUCache<CompoundCacheKey, ServerPreparedStatement>(cacheSize) {
-
-                    private static final long serialVersionUID = 7692318650375988114L;
-
-                    @Override
-                    protected boolean removeEldestEntry(java.util.Map.Entry<CompoundCacheKey, ServerPreparedStatement> eldest) {
-                        if (this.maxElements <= 1) {
-                            return false;
-                        }
-
-                        boolean removeIt = super.removeEldestEntry(eldest);
-
-                        if (removeIt) {
-                            ServerPreparedStatement ps = eldest.getValue();
-                            ps.isCached = false;
-                            ps.setClosed(false);
-                            try {
-                                ps.realClose(true, true);
-                            } catch (SQLException sqlEx) {
-                                // punt
-                            }
-                        }
-
-                        return removeIt;
+                // A cache size of 0 or 1 has never evicted server prepared statements
+                this.serverSideStatementCache = new ConcurrentLRUCache<>(cacheSize <= 1 ? Integer.MAX_VALUE : cacheSize, (key, ps) -> {
+                    ps.isCached = false;
+                    ps.setClosed(false);
+                    try {
+                        ps.realClose(true, true);
+                    } catch (SQLException sqlEx) {
+                        // punt
                     }
-                };
+                });
             }
         }
     }
@@ -1532,22 +1514,20 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
 
             cStmt = parseCallableStatement(sql);
         } else {
-            synchronized (this.parsedCallableStatementCache) {
-                CompoundCacheKey key = new CompoundCacheKey(getDatabase(), sql);
-
-                CallableStatement.CallableStatementParamInfo cachedParamInfo = this.parsedCallableStatementCache.get(key);
+            CompoundCacheKey key = new CompoundCacheKey(getDatabase(), sql);
 
-                if (cachedParamInfo != null) {
-                    cStmt = CallableStatement.getInstance(getMultiHostSafeProxy(), cachedParamInfo);
-                } else {
-                    cStmt = parseCallableStatement(sql);
+            CallableStatement.CallableStatementParamInfo cachedParamInfo = this.parsedCallableStatementCache.get(key);
 
-                    synchronized (cStmt) {
-                        cachedParamInfo = cStmt.paramInfo;
-                    }
+            if (cachedParamInfo != null) {
+                cStmt = CallableStatement.getInstance(getMultiHostSafeProxy(), cachedParamInfo);
+            } else {
+                cStmt = parseCallableStatement(sql);
 
-                    this.parsedCallableStatementCache.put(key, cachedParamInfo);
+                synchronized (cStmt) {
+                    cachedParamInfo = cStmt.paramInfo;
                 }
+
+                this.parsedCallableStatementCache.put(key, cachedParamInfo);
             }
         }
 
@@ -1604,35 +1584,33 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
 
             if (this.useServerPrepStmts.getValue() && canServerPrepare) {
                 if (this.cachePrepStmts.getValue()) {
-                    synchronized (this.serverSideStatementCache) {
-                        pStmt = this.serverSideStatementCache.remove(new CompoundCacheKey(this.database, sql));
+                    pStmt = this.serverSideStatementCache.remove(new CompoundCacheKey(this.database, sql));
 
-                        if (pStmt != null) {
-                            ((com.mysql.cj.jdbc.ServerPreparedStatement) pStmt).setClosed(false);
-                            pStmt.clearParameters();
-                        }
+                    if (pStmt != null) {
+                        ((com.mysql.cj.jdbc.ServerPreparedStatement) pStmt).setClosed(false);
+                        pStmt.clearParameters();
+                    }
 
-                        if (pStmt == null) {
-                            try {
-                                pStmt = ServerPreparedStatement.getInstance(getMultiHostSafeProxy(), nativeSql, this.database, resultSetType,
-                                        resultSetConcurrency);
-                                if (sql.length() < this.prepStmtCacheSqlLimit.getValue()) {
-                                    ((com.mysql.cj.jdbc.ServerPreparedStatement) pStmt).isCacheable = true;
-                                }
+                    if (pStmt == null) {
+                        try {
+                            pStmt = ServerPreparedStatement.getInstance(getMultiHostSafeProxy(), nativeSql, this.database, resultSetType,
+                                    resultSetConcurrency);
+                            if (sql.length() < this.prepStmtCacheSqlLimit.getValue()) {
+                                ((com.mysql.cj.jdbc.ServerPreparedStatement) pStmt).isCacheable = true;
+                            }
+
+                            pStmt.setResultSetType(resultSetType);
+                            pStmt.setResultSetConcurrency(resultSetConcurrency);
+                        } catch (SQLException sqlEx) {
+                            // Punt, if necessary
+                            if (this.emulateUnsupportedPstmts.getValue()) {
+                                pStmt = (ClientPreparedStatement) clientPrepareStatement(nativeSql, resultSetType, resultSetConcurrency, false);
 
-                                pStmt.setResultSetType(resultSetType);
-                                pStmt.setResultSetConcurrency(resultSetConcurrency);
-                            } catch (SQLException sqlEx) {
-                                // Punt, if necessary
-                                if (this.emulateUnsupportedPstmts.getValue()) {
-                                    pStmt = (ClientPreparedStatement) clientPrepareStatement(nativeSql, resultSetType, resultSetConcurrency, false);
-
-                                    if (sql.length() < this.prepStmtCacheSqlLimit.getValue()) {
-                                        this.serverSideStatementCheckCache.put(sql, Boolean.FALSE);
-                                    }
-                                } else {
-                                    throw sqlEx;
+                                if (sql.length() < this.prepStmtCacheSqlLimit.getValue()) {
+                                    this.serverSideStatementCheckCache.put(sql, Boolean.FALSE);
                                 }
+                            } else {
+                                throw sqlEx;
                             }
                         }
                     }
@@ -1762,15 +1740,13 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
     public void recachePreparedStatement(JdbcPreparedStatement pstmt) throws SQLException {
         synchronized (getConnectionMutex()) {
             if (this.cachePrepStmts.getValue() && pstmt.isPoolable()) {
-                synchronized (this.serverSideStatementCache) {
-                    Object oldServerPrepStmt = this.serverSideStatementCache.put(
-                            new CompoundCacheKey(pstmt.getCurrentDatabase(), ((PreparedQuery<?>) pstmt.getQuery()).getOriginalSql()),
-                            (ServerPreparedStatement) pstmt);
-                    if (oldServerPrepStmt != null && oldServerPrepStmt != pstmt) {
-                        ((ServerPreparedStatement) oldServerPrepStmt).isCached = false;
-                        ((ServerPreparedStatement) oldServerPrepStmt).setClosed(false);
-                        ((ServerPreparedStatement) oldServerPrepStmt).realClose(true, true);
-                    }
+                ServerPreparedStatement oldServerPrepStmt = this.serverSideStatementCache.getAndPut(
+                        new CompoundCacheKey(pstmt.getCurrentDatabase(), ((PreparedQuery<?>) pstmt.getQuery()).getOriginalSql()),
+                        (ServerPreparedStatement) pstmt);
+                if (oldServerPrepStmt != null && oldServerPrepStmt != pstmt) {
+                    oldServerPrepStmt.isCached = false;
+                    oldServerPrepStmt.setClosed(false);
+                    oldServerPrepStmt.realClose(true, true);
                 }
             }
         }
@@ -1780,10 +1756,7 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
     public void decachePreparedStatement(JdbcPreparedStatement pstmt) throws SQLException {
         synchronized (getConnectionMutex()) {
             if (this.cachePrepStmts.getValue()) {
-                synchronized (this.serverSideStatementCache) {
-                    this.serverSideStatementCache
-                            .remove(new CompoundCacheKey(pstmt.getCurrentDatabase(), ((PreparedQuery<?>) pstmt.getQuery()).getOriginalSql()));
-                }
+                this.serverSideStatementCache.remove(new CompoundCacheKey(pstmt.getCurrentDatabase(), ((PreparedQuery<?>) pstmt.getQuery()).getOriginalSql()));
             }
         }
     }
@@ -2322,9 +2295,7 @@ public class ConnectionImpl implements JdbcConnection, SessionEventListener, Ser
     @Override
     public CachedResultSetMetaData getCachedMetaData(String sql) {
         if (this.resultSetMetadataCache != null) {
-            synchronized (this.resultSetMetadataCache) {
-                return this.resultSetMetadataCache.get(sql);
-            }
+            return this.resultSetMetadataCache.get(sql);
         }
 
         return null; // no cache exists
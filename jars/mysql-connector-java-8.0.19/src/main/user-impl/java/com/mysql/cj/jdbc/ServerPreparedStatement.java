@@ -41,6 +41,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Wrapper;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 import com.mysql.cj.CancelQueryTask;
 import com.mysql.cj.Messages;
@@ -172,6 +173,14 @@ public class ServerPreparedStatement extends ClientPreparedStatement {
         }
     }
 
+    @Override
+    public CompletableFuture<Long> executeUpdateAsync() throws SQLException {
+        checkClosed();
+
+        // only client-side prepared statements, sent as COM_QUERY, can be executed asynchronously
+        throw SQLError.createSQLFeatureNotSupportedException();
+    }
+
     @Override
     public String asSql(boolean quoteStreamsAndUnknowns) throws SQLException {
 
@@ -40,6 +40,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.mysql.cj.CancelQueryTask;
@@ -81,6 +83,7 @@ import com.mysql.cj.protocol.Resultset;
 import com.mysql.cj.protocol.Resultset.Type;
 import com.mysql.cj.protocol.a.NativeConstants;
 import com.mysql.cj.protocol.a.NativeMessageBuilder;
+import com.mysql.cj.protocol.a.NativePacketPayload;
 import com.mysql.cj.protocol.a.result.ByteArrayRow;
 import com.mysql.cj.protocol.a.result.ResultsetRowsStatic;
 import com.mysql.cj.result.DefaultColumnDefinition;
@@ -2108,6 +2111,60 @@ public class StatementImpl implements JdbcStatement {
         return executeUpdateInternal(sql, false, false);
     }
 
+    @Override
+    public CompletableFuture<Long> executeUpdateAsync(String sql) throws SQLException {
+        synchronized (checkClosed().getConnectionMutex()) {
+            checkNullOrEmptyQuery(sql);
+
+            if (this.doEscapeProcessing) {
+                Object escapedSqlResult = EscapeProcessor.escapeSQL(sql, this.session.getServerSession().getDefaultTimeZone(),
+                        this.session.getServerSession().getCapabilities().serverSupportsFracSecs(), this.session.getServerSession().isServerTruncatesFracSecs(),
+                        getExceptionInterceptor());
+                sql = escapedSqlResult instanceof String ? (String) escapedSqlResult : ((EscapeProcessorResult) escapedSqlResult).escapedSql;
+            }
+
+            if (this.connection.isReadOnly(false)) {
+                throw SQLError.createSQLException(Messages.getString("Statement.42") + Messages.getString("Statement.43"),
+                        MysqlErrorNumbers.SQL_STATE_ILLEGAL_ARGUMENT, getExceptionInterceptor());
+            }
+
+            if (StringUtils.startsWithIgnoreCaseAndWs(sql, "select")) {
+                throw SQLError.createSQLException(Messages.getString("Statement.46"), "01S03", getExceptionInterceptor());
+            }
+
+            implicitlyCloseAllOpenResults();
+
+            return sendUpdateAsync(new NativeMessageBuilder().buildComQuery(this.session.getSharedSendPacket(), sql, this.charEncoding));
+        }
+    }
+
+    /**
+     * Send a data modification command without waiting for its response.
+     * 
+     * @param packet
+     *            the command
+     * @return future completed with the update count of the command, or failed with an {@link SQLException}
+     * @throws SQLException
+     *             if the command can't be sent
+     */
+    protected CompletableFuture<Long> sendUpdateAsync(NativePacketPayload packet) throws SQLException {
+        ExceptionInterceptor interceptor = getExceptionInterceptor();
+        CompletableFuture<Long> updateCount = new CompletableFuture<>();
+        try {
+            this.session.sendCommandAsync(packet).whenComplete((ok, ex) -> {
+                if (ex == null) {
+                    updateCount.complete(ok.getUpdateCount());
+                } else {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    updateCount.completeExceptionally(cause instanceof CJException ? SQLExceptionsMapping.translateException(cause, interceptor) : cause);
+                }
+            });
+        } catch (CJException e) {
+            throw SQLExceptionsMapping.translateException(e, interceptor);
+        }
+        return updateCount;
+    }
+
     @Override
     public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
         return executeUpdateInternal(sql, false, autoGeneratedKeys == java.sql.Statement.RETURN_GENERATED_KEYS);
@@ -106,6 +106,7 @@ import com.mysql.cj.result.LocalDateTimeValueFactory;
 import com.mysql.cj.result.LocalDateValueFactory;
 import com.mysql.cj.result.LocalTimeValueFactory;
 import com.mysql.cj.result.LongValueFactory;
+import com.mysql.cj.result.Row;
 import com.mysql.cj.result.ShortValueFactory;
 import com.mysql.cj.result.SqlDateValueFactory;
 import com.mysql.cj.result.SqlTimeValueFactory;
@@ -470,6 +471,44 @@ public class ResultSetImpl extends NativeResultset implements ResultSetInternalM
         }
     }
 
+    /**
+     * Checks whether every value of the column can be read with {@link Row#getLong(int)} and returned as is, without going through a value factory and
+     * boxing the result.
+     * 
+     * @param columnIndex
+     *            the first column is 1, the second is 2, ...
+     * @param intRange
+     *            true if the value is read as an int
+     * @return true if the column holds integers that fit into the requested type
+     */
+    private boolean isIntegerColumn(int columnIndex, boolean intRange) {
+        Field f = this.columnDefinition.getFields()[columnIndex - 1];
+        switch (f.getMysqlTypeId()) {
+            case MysqlType.FIELD_TYPE_TINY:
+            case MysqlType.FIELD_TYPE_SHORT:
+            case MysqlType.FIELD_TYPE_INT24:
+                return true;
+            case MysqlType.FIELD_TYPE_LONG:
+                return !intRange || !f.isUnsigned();
+            case MysqlType.FIELD_TYPE_LONGLONG:
+                return !intRange && !f.isUnsigned();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether the column can be read with {@link Row#getDouble(int)} without going through a value factory and boxing the result.
+     * 
+     * @param columnIndex
+     *            the first column is 1, the second is 2, ...
+     * @return true for FLOAT and DOUBLE columns
+     */
+    private boolean isFloatingPointColumn(int columnIndex) {
+        int type = this.columnDefinition.getFields()[columnIndex - 1].getMysqlTypeId();
+        return type == MysqlType.FIELD_TYPE_FLOAT || type == MysqlType.FIELD_TYPE_DOUBLE;
+    }
+
     /**
      * Ensures that the cursor is positioned on a valid row and that the result
      * set is not closed
@@ -761,6 +800,17 @@ public class ResultSetImpl extends NativeResultset implements ResultSetInternalM
 
     @Override
     public double getDouble(int columnIndex) throws SQLException {
+        synchronized (checkClosed().getConnectionMutex()) {
+            checkRowPos();
+            checkColumnBounds(columnIndex);
+            if (isFloatingPointColumn(columnIndex)) {
+                double d = this.thisRow.getDouble(columnIndex - 1);
+                // let the value factory deal with values out of range
+                if (!Double.isInfinite(d) && !Double.isNaN(d)) {
+                    return d;
+                }
+            }
+        }
         Double res = getObject(columnIndex, Double.TYPE);
         return res == null ? (double) 0 : res;
     }
@@ -783,6 +833,13 @@ public class ResultSetImpl extends NativeResultset implements ResultSetInternalM
 
     @Override
     public int getInt(int columnIndex) throws SQLException {
+        synchronized (checkClosed().getConnectionMutex()) {
+            checkRowPos();
+            checkColumnBounds(columnIndex);
+            if (isIntegerColumn(columnIndex, true)) {
+                return (int) this.thisRow.getLong(columnIndex - 1);
+            }
+        }
         Integer res = getObject(columnIndex, Integer.TYPE);
         return res == null ? 0 : res;
     }
@@ -809,6 +866,13 @@ public class ResultSetImpl extends NativeResultset implements ResultSetInternalM
 
     @Override
     public long getLong(int columnIndex) throws SQLException {
+        synchronized (checkClosed().getConnectionMutex()) {
+            checkRowPos();
+            checkColumnBounds(columnIndex);
+            if (isIntegerColumn(columnIndex, false)) {
+                return this.thisRow.getLong(columnIndex - 1);
+            }
+        }
         Long res = getObject(columnIndex, Long.TYPE);
         return res == null ? 0L : res;
     }
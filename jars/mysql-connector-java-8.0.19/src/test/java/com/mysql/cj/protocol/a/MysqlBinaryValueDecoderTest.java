@@ -38,7 +38,9 @@ import java.nio.ByteOrder;
 import org.junit.Test;
 
 import com.mysql.cj.Constants;
+import com.mysql.cj.MysqlType;
 import com.mysql.cj.conf.DefaultPropertySet;
+import com.mysql.cj.result.Field;
 import com.mysql.cj.result.StringValueFactory;
 import com.mysql.cj.result.ValueFactory;
 
@@ -104,4 +106,33 @@ public class MysqlBinaryValueDecoderTest {
         decoded = this.valueDecoder.decodeUInt8(unsignedInt8Max, 0, 8, vf);
         assertEquals("18446744073709551615", decoded);
     }
+
+    @Test
+    public void testDecodeLong() {
+        Field int4 = new Field(null, null, null, null, null, 11, MysqlType.FIELD_TYPE_LONG, (short) 0, 0, 63, "ASCII", MysqlType.INT);
+        Field uint4 = new Field(null, null, null, null, null, 10, MysqlType.FIELD_TYPE_LONG, (short) 0, 0, 63, "ASCII", MysqlType.INT_UNSIGNED);
+        Field int2 = new Field(null, null, null, null, null, 6, MysqlType.FIELD_TYPE_SHORT, (short) 0, 0, 63, "ASCII", MysqlType.SMALLINT);
+        Field int8 = new Field(null, null, null, null, null, 20, MysqlType.FIELD_TYPE_LONGLONG, (short) 0, 0, 63, "ASCII", MysqlType.BIGINT);
+
+        byte[] minusOne = ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN).put((byte) 0x7F).putLong(-1L).array();
+        assertEquals(-1, this.valueDecoder.decodeLong(minusOne, 1, 4, int4));
+        assertEquals(4294967295L, this.valueDecoder.decodeLong(minusOne, 1, 4, uint4));
+        assertEquals(-1, this.valueDecoder.decodeLong(minusOne, 1, 2, int2));
+        assertEquals(-1, this.valueDecoder.decodeLong(minusOne, 1, 8, int8));
+
+        byte[] int8Min = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(Long.MIN_VALUE).array();
+        assertEquals(Long.MIN_VALUE, this.valueDecoder.decodeLong(int8Min, 0, 8, int8));
+    }
+
+    @Test
+    public void testDecodeDouble() {
+        Field doubleField = new Field(null, null, null, null, null, 22, MysqlType.FIELD_TYPE_DOUBLE, (short) 0, 31, 63, "ASCII", MysqlType.DOUBLE);
+        Field floatField = new Field(null, null, null, null, null, 12, MysqlType.FIELD_TYPE_FLOAT, (short) 0, 31, 63, "ASCII", MysqlType.FLOAT);
+
+        byte[] pi = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putDouble(Math.PI).array();
+        assertEquals(Math.PI, this.valueDecoder.decodeDouble(pi, 0, 8, doubleField), 0);
+
+        byte[] piFloat = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putFloat((float) Math.PI).array();
+        assertEquals((float) Math.PI, this.valueDecoder.decodeDouble(piFloat, 0, 4, floatField), 0);
+    }
 }
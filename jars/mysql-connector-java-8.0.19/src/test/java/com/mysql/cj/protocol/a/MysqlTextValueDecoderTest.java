@@ -32,6 +32,8 @@ package com.mysql.cj.protocol.a;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import com.mysql.cj.Constants;
@@ -123,4 +125,43 @@ public class MysqlTextValueDecoderTest {
         assertEquals("9223372036854775807", this.valueDecoder.decodeUInt8(uint8MoreThanMaxLong1, 0, uint8MoreThanMaxLong1.length, vf));
         assertEquals("18223372036854775807", this.valueDecoder.decodeUInt8(uint8MoreThanMaxLong2, 0, uint8MoreThanMaxLong2.length, vf));
     }
+
+    @Test
+    public void testDecodeLong() {
+        // values are read in place from the middle of a row buffer
+        byte[] row = "x-2147483648|9223372036854775807|-9223372036854775808|+42|".getBytes();
+        assertEquals(Integer.MIN_VALUE, this.valueDecoder.decodeLong(row, 1, 11, null));
+        assertEquals(Long.MAX_VALUE, this.valueDecoder.decodeLong(row, 13, 19, null));
+        assertEquals(Long.MIN_VALUE, this.valueDecoder.decodeLong(row, 33, 20, null));
+        assertEquals(42, this.valueDecoder.decodeLong(row, 54, 3, null));
+    }
+
+    @Test
+    public void testDoubleValues() {
+        // the in place parser has to give exactly the same results as Double.parseDouble()
+        String[] values = { "0", "-0", "1", "-1", "0.1", "0.05", "3.14159", "-2.5e-3", "1E10", "1.7976931348623157E308", "4.9E-324", "123456789012345",
+                "1234567890123456789", "0.000000000000000000000001", "1e22", "1e23", "9007199254740993", ".5", "1.", "+7.25", "2.2250738585072014E-308",
+                "1e-5", "12345.678e-2", " 1.5 ", "NaN", "-Infinity", "1e400" };
+        for (String value : values) {
+            byte[] bytes = ("|" + value + "|").getBytes();
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                    Double.doubleToLongBits(MysqlTextValueDecoder.getDouble(bytes, 1, bytes.length - 2)));
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            String value = String.valueOf(random.nextInt(2000000) - 1000000) + "." + String.valueOf(random.nextInt(1000000));
+            byte[] bytes = value.getBytes();
+            assertEquals(value, Double.parseDouble(value), MysqlTextValueDecoder.getDouble(bytes, 0, bytes.length), 0);
+        }
+
+        for (String value : new String[] { "", "-", ".", "1e", "1.5x", "abc" }) {
+            try {
+                MysqlTextValueDecoder.getDouble(value.getBytes(), 0, value.length());
+                fail("Exception should be thrown for \"" + value + "\"");
+            } catch (NumberFormatException ex) {
+                // expected
+            }
+        }
+    }
 }
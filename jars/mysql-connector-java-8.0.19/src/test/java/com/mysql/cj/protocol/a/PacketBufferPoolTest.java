@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj.protocol.a;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link PacketBufferPool}.
+ */
+public class PacketBufferPoolTest {
+
+    // buffers are rounded up to a size class and reused from it
+    @Test
+    public void sizeClasses() {
+        PacketBufferPool pool = new PacketBufferPool(4096);
+        assertEquals(4096, pool.getMaxBufferSize());
+        assertEquals(256, pool.acquire(1).length);
+        assertEquals(256, pool.acquire(256).length);
+        assertEquals(512, pool.acquire(257).length);
+        assertEquals(4096, pool.acquire(4096).length);
+
+        byte[] buffer = pool.acquire(1000);
+        assertEquals(1024, buffer.length);
+        pool.release(buffer);
+        assertSame(buffer, pool.acquire(513));
+        assertNotSame(buffer, pool.acquire(513));
+        assertEquals(7, pool.getAcquiredCount());
+        assertEquals(1, pool.getReusedCount());
+    }
+
+    // the maximum is rounded up to a power of two
+    @Test
+    public void maxBufferSize() {
+        assertEquals(PacketBufferPool.MIN_BUFFER_SIZE, new PacketBufferPool(1).getMaxBufferSize());
+        assertEquals(65536, new PacketBufferPool(40000).getMaxBufferSize());
+    }
+
+    // large requests are exact sized and never pooled
+    @Test
+    public void largeBuffers() {
+        PacketBufferPool pool = new PacketBufferPool(1024);
+        byte[] buffer = pool.acquire(1025);
+        assertEquals(1025, buffer.length);
+        pool.release(buffer);
+        pool.release(new byte[2048]);
+        assertEquals(0, pool.getReleasedCount());
+    }
+
+    // only arrays of exactly a size class are taken back, and only as many as a class holds
+    @Test
+    public void release() {
+        PacketBufferPool pool = new PacketBufferPool(1024);
+        pool.release(null);
+        pool.release(new byte[100]);
+        pool.release(new byte[300]);
+        assertEquals(0, pool.getReleasedCount());
+
+        for (int i = 0; i < PacketBufferPool.BUFFERS_PER_SIZE + 2; i++) {
+            pool.release(new byte[512]);
+        }
+        assertEquals(PacketBufferPool.BUFFERS_PER_SIZE, pool.getReleasedCount());
+        for (int i = 0; i < PacketBufferPool.BUFFERS_PER_SIZE + 1; i++) {
+            pool.acquire(512);
+        }
+        assertEquals(PacketBufferPool.BUFFERS_PER_SIZE, pool.getReusedCount());
+
+        pool.release(new byte[256]);
+        pool.clear();
+        pool.acquire(256);
+        assertEquals(PacketBufferPool.BUFFERS_PER_SIZE, pool.getReusedCount());
+    }
+
+    // payloads start empty and their buffer goes back to the pool
+    @Test
+    public void payloads() {
+        PacketBufferPool pool = new PacketBufferPool(1024);
+        NativePacketPayload payload = pool.acquirePayload(10);
+        assertEquals(0, payload.getPayloadLength());
+        assertEquals(0, payload.getPosition());
+        payload.writeInteger(NativeConstants.IntegerDataType.INT4, 42);
+        assertEquals(4, payload.getPayloadLength());
+
+        byte[] buffer = payload.getByteBuffer();
+        pool.releasePayload(payload);
+        assertSame(buffer, pool.acquirePayload(200).getByteBuffer());
+    }
+}
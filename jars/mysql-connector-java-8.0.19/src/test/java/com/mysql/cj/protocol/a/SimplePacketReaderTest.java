@@ -30,6 +30,7 @@
 package com.mysql.cj.protocol.a;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -136,6 +137,29 @@ public class SimplePacketReaderTest {
         assertEquals(4, b.getByteBuffer()[2]);
     }
 
+    // packets read without a reusable packet come from the pool when one is given
+    @Test
+    public void readPooledPayload() throws IOException {
+        RuntimeProperty<Integer> maxAllowedPacket = new JdbcPropertySetImpl().getProperty(PropertyKey.maxAllowedPacket);
+        SocketConnection connection = new FixedBufferSocketConnection(new byte[] { 3, 2, 1, 6, 5, 4 });
+        PacketBufferPool pool = new PacketBufferPool(1024);
+        MessageReader<NativePacketHeader, NativePacketPayload> reader = new SimplePacketReader(connection, maxAllowedPacket, pool);
+        NativePacketPayload b = reader.readMessage(Optional.empty(), new NativePacketHeader(new byte[] { 3, 0, 0, 0 }));
+        assertEquals(3, b.getPayloadLength());
+        assertEquals(PacketBufferPool.MIN_BUFFER_SIZE, b.getCapacity());
+        assertEquals(3, b.getByteBuffer()[0]);
+        assertEquals(1, b.getByteBuffer()[2]);
+
+        byte[] first = b.getByteBuffer();
+        pool.releasePayload(b);
+        b = reader.readMessage(Optional.empty(), new NativePacketHeader(new byte[] { 3, 0, 0, 0 }));
+        assertSame(first, b.getByteBuffer());
+        assertEquals(3, b.getPayloadLength());
+        assertEquals(6, b.getByteBuffer()[0]);
+        assertEquals(4, b.getByteBuffer()[2]);
+        assertEquals(1, pool.getReusedCount());
+    }
+
     // test error handling when reading payload
     @Test
     public void readPayloadErrors() throws IOException {
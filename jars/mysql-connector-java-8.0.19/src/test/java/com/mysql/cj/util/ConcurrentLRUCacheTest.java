@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License, version 2.0, as published by the
+ * Free Software Foundation.
+ *
+ * This program is also distributed with certain software (including but not
+ * limited to OpenSSL) that is licensed under separate terms, as designated in a
+ * particular file or component or in included license documentation. The
+ * authors of MySQL hereby grant you an additional permission to link the
+ * program and your derivative works with the separately licensed software that
+ * they have included with MySQL.
+ *
+ * Without limiting anything contained in the foregoing, this file, which is
+ * part of MySQL Connector/J, is also subject to the Universal FOSS Exception,
+ * version 1.0, a copy of which can be found at
+ * http://oss.oracle.com/licenses/universal-foss-exception.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License, version 2.0,
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin St, Fifth Floor, Boston, MA 02110-1301  USA
+ */
+
+package com.mysql.cj.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ConcurrentLRUCache}.
+ */
+public class ConcurrentLRUCacheTest {
+
+    // the least recently used entry is evicted and counted
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        List<String> evicted = new ArrayList<>();
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(3, (k, v) -> evicted.add(k));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.put("d", 4);
+        assertEquals(Arrays.asList("a"), evicted);
+        assertEquals(3, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals(Integer.valueOf(2), cache.get("b"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    // entries read again survive a run of entries that are used once
+    @Test
+    public void protectsEntriesUsedAgain() {
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(10);
+        for (int i = 0; i < 5; i++) {
+            cache.put("hot" + i, i);
+            cache.get("hot" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            cache.put("cold" + i, i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i), cache.get("hot" + i));
+        }
+        assertEquals(10, cache.size());
+    }
+
+    // protected entries that stop being used are evicted eventually
+    @Test
+    public void demotesUnusedProtectedEntries() {
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(5);
+        for (int i = 0; i < 5; i++) {
+            cache.put("old" + i, i);
+            cache.get("old" + i);
+        }
+        for (int i = 0; i < 20; i++) {
+            cache.put("new" + i, i);
+            cache.get("new" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertNull(cache.get("old" + i));
+        }
+    }
+
+    // replacing returns the previous value, removing and invalidating don't count as evictions
+    @Test
+    public void replaceAndRemove() {
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(2, (k, v) -> {
+            throw new AssertionError("nothing should be evicted");
+        });
+        assertNull(cache.getAndPut("a", 1));
+        assertEquals(Integer.valueOf(1), cache.getAndPut("a", 2));
+        cache.put("b", 3);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), cache.keySet());
+        assertEquals(Integer.valueOf(2), cache.remove("a"));
+        assertNull(cache.remove("a"));
+        cache.invalidateAll(new HashSet<>(Arrays.asList("b")));
+        assertEquals(0, cache.size());
+        cache.put("c", 4);
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    // with a weigher the capacity is a total weight
+    @Test
+    public void weightedEntries() {
+        ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(10, String::length, null);
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        assertEquals(8, cache.weight());
+        cache.put("c", "xxxxxxx");
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(7, cache.weight());
+        assertEquals(2, cache.getEvictionCount());
+
+        // replacing adjusts the weight
+        cache.put("c", "xx");
+        assertEquals(2, cache.weight());
+        cache.remove("c");
+        assertEquals(0, cache.weight());
+    }
+
+    // conditional removal only removes the expected value
+    @Test
+    public void removeIfSame() {
+        ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(10, String::length, null);
+        String value = new String("xx");
+        cache.put("a", value);
+        assertFalse(cache.remove("a", new String("xx")));
+        assertTrue(cache.remove("a", value));
+        assertFalse(cache.remove("a", value));
+        assertEquals(0, cache.weight());
+    }
+
+    // a cache of size 0 keeps nothing
+    @Test
+    public void emptyCache() {
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(0);
+        cache.put("a", 1);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    // large caches are striped and never grow past their size
+    @Test
+    public void concurrentAccess() throws Exception {
+        final ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        int key = (i * 31 + seed) % 1000;
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else {
+                            assertEquals(key, value.intValue());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() <= 256);
+        assertEquals(8 * 20000, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+}
@@ -125,7 +125,7 @@ import com.mysql.cj.protocol.ColumnDefinition;
 import com.mysql.cj.protocol.Resultset;
 import com.mysql.cj.protocol.ResultsetRows;
 import com.mysql.cj.protocol.ServerSession;
-import com.mysql.cj.util.LRUCache;
+import com.mysql.cj.util.ConcurrentLRUCache;
 import com.mysql.cj.util.TimeUtil;
 
 import testsuite.BaseQueryInterceptor;
@@ -10080,7 +10080,7 @@ public class StatementRegressionTest extends BaseTestCase {
         stmtsCacheField.setAccessible(true);
         ToIntFunction<Connection> getStmtsCacheSize = (c) -> {
             try {
-                LRUCache<?, ?> stmtsCacheObj = (LRUCache<?, ?>) stmtsCacheField.get(c);
+                ConcurrentLRUCache<?, ?> stmtsCacheObj = (ConcurrentLRUCache<?, ?>) stmtsCacheField.get(c);
                 return stmtsCacheObj == null ? -1 : stmtsCacheObj.size();
             } catch (IllegalArgumentException | IllegalAccessException e) {
                 fail("Fail getting the statemets cache size.");
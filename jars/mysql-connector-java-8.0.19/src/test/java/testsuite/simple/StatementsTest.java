@@ -59,25 +59,35 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 
 import com.mysql.cj.CharsetMapping;
 import com.mysql.cj.MysqlConnection;
 import com.mysql.cj.MysqlType;
+import com.mysql.cj.ParseInfo;
+import com.mysql.cj.PerVmParseInfoCacheFactory;
 import com.mysql.cj.conf.PropertyKey;
 import com.mysql.cj.exceptions.MysqlErrorNumbers;
 import com.mysql.cj.jdbc.ClientPreparedStatement;
 import com.mysql.cj.jdbc.ConnectionImpl;
 import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcPreparedStatement;
+import com.mysql.cj.jdbc.JdbcStatement;
 import com.mysql.cj.jdbc.ParameterBindings;
 import com.mysql.cj.jdbc.ServerPreparedStatement;
 import com.mysql.cj.jdbc.exceptions.MySQLStatementCancelledException;
 import com.mysql.cj.jdbc.exceptions.MySQLTimeoutException;
 import com.mysql.cj.jdbc.interceptors.ServerStatusDiffInterceptor;
-import com.mysql.cj.util.LRUCache;
+import com.mysql.cj.util.ConcurrentLRUCache;
 import com.mysql.cj.util.StringUtils;
 import com.mysql.cj.util.TimeUtil;
 
@@ -3719,7 +3729,7 @@ public class StatementsTest extends BaseTestCase {
         stmtsCacheField.setAccessible(true);
         ToIntFunction<Connection> getStmtsCacheSize = (c) -> {
             try {
-                LRUCache<?, ?> stmtsCacheObj = (LRUCache<?, ?>) stmtsCacheField.get(c);
+                ConcurrentLRUCache<?, ?> stmtsCacheObj = (ConcurrentLRUCache<?, ?>) stmtsCacheField.get(c);
                 return stmtsCacheObj == null ? -1 : stmtsCacheObj.size();
             } catch (IllegalArgumentException | IllegalAccessException e) {
                 fail("Fail getting the statemets cache size.");
@@ -3729,7 +3739,7 @@ public class StatementsTest extends BaseTestCase {
         Function<Connection, ServerPreparedStatement> getStmtsCacheSingleElem = (c) -> {
             try {
                 @SuppressWarnings("unchecked")
-                LRUCache<?, ServerPreparedStatement> stmtsCacheObj = (LRUCache<?, ServerPreparedStatement>) stmtsCacheField.get(c);
+                ConcurrentLRUCache<Object, ServerPreparedStatement> stmtsCacheObj = (ConcurrentLRUCache<Object, ServerPreparedStatement>) stmtsCacheField.get(c);
                 return stmtsCacheObj.get(stmtsCacheObj.keySet().iterator().next());
             } catch (IllegalArgumentException | IllegalAccessException e) {
                 fail("Fail getting the statemets cache element.");
@@ -3993,4 +4003,131 @@ public class StatementsTest extends BaseTestCase {
             }
         } while ((useSPS = !useSPS) || (cachePS = !cachePS));
     }
+
+    /**
+     * Tests that PerVmParseInfoCacheFactory shares parsed statements between connections with the same settings.
+     */
+    public void testPerVmParseInfoCache() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PropertyKey.useServerPrepStmts.getKeyName(), "false");
+        props.setProperty(PropertyKey.cachePrepStmts.getKeyName(), "true");
+        props.setProperty(PropertyKey.parseInfoCacheFactory.getKeyName(), PerVmParseInfoCacheFactory.class.getName());
+
+        final String sql = "INSERT INTO testPerVmParseInfoCache VALUES (?, 'testPerVmParseInfoCache')";
+
+        Connection testConn1 = getConnectionWithProps(props);
+        Connection testConn2 = getConnectionWithProps(props);
+        props.setProperty(PropertyKey.rewriteBatchedStatements.getKeyName(), "true");
+        Connection testConn3 = getConnectionWithProps(props);
+        try {
+            ParseInfo parseInfo1 = ((JdbcPreparedStatement) testConn1.prepareStatement(sql)).getParseInfo();
+            ParseInfo parseInfo2 = ((JdbcPreparedStatement) testConn2.prepareStatement(sql)).getParseInfo();
+            assertSame(parseInfo1, parseInfo2);
+
+            // rewriteBatchedStatements changes how the statement is parsed
+            ParseInfo parseInfo3 = ((JdbcPreparedStatement) testConn3.prepareStatement(sql)).getParseInfo();
+            assertNotSame(parseInfo1, parseInfo3);
+            assertSame(parseInfo3, ((JdbcPreparedStatement) testConn3.prepareStatement(sql)).getParseInfo());
+        } finally {
+            testConn1.close();
+            testConn2.close();
+            testConn3.close();
+        }
+    }
+
+    /**
+     * Tests pipelined data modification statements with executeUpdateAsync().
+     */
+    public void testExecuteUpdateAsync() throws Exception {
+        createTable("testExecuteUpdateAsync", "(id INT PRIMARY KEY, val INT)");
+
+        Properties props = new Properties();
+        props.setProperty(PropertyKey.useAsyncSocketChannel.getKeyName(), "true");
+        props.setProperty(PropertyKey.useServerPrepStmts.getKeyName(), "false");
+        props.setProperty(PropertyKey.allowMultiQueries.getKeyName(), "true");
+
+        Connection testConn = getConnectionWithProps(props);
+        try {
+            JdbcStatement testStmt = (JdbcStatement) testConn.createStatement();
+            JdbcPreparedStatement testPstmt = (JdbcPreparedStatement) testConn.prepareStatement("INSERT INTO testExecuteUpdateAsync VALUES (?, ?)");
+
+            List<CompletableFuture<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(testStmt.executeUpdateAsync("INSERT INTO testExecuteUpdateAsync VALUES (" + i + ", " + i + ")"));
+                testPstmt.setInt(1, 100 + i);
+                testPstmt.setInt(2, i);
+                futures.add(testPstmt.executeUpdateAsync());
+            }
+            futures.add(testStmt.executeUpdateAsync("UPDATE testExecuteUpdateAsync SET val = val + 1 WHERE id < 100"));
+
+            // a blocking statement waits for the pending ones
+            this.rs = testConn.createStatement().executeQuery("SELECT COUNT(*), SUM(val) FROM testExecuteUpdateAsync");
+            assertTrue(this.rs.next());
+            assertEquals(200, this.rs.getInt(1));
+            assertEquals(2 * 4950 + 100, this.rs.getInt(2));
+
+            for (int i = 0; i < 200; i++) {
+                assertEquals(Long.valueOf(1), futures.get(i).get());
+            }
+            assertEquals(Long.valueOf(100), futures.get(200).get());
+
+            // server errors fail the future only, the following statements still run
+            CompletableFuture<Long> duplicate = testStmt.executeUpdateAsync("INSERT INTO testExecuteUpdateAsync VALUES (0, 0)");
+            CompletableFuture<Long> delete = testStmt.executeUpdateAsync("DELETE FROM testExecuteUpdateAsync WHERE id >= 100");
+            try {
+                duplicate.get();
+                fail("Duplicate key should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof SQLException);
+                assertEquals(MysqlErrorNumbers.ER_DUP_ENTRY, ((SQLException) e.getCause()).getErrorCode());
+            }
+            assertEquals(Long.valueOf(100), delete.get());
+
+            // result sets can't be read asynchronously
+            assertThrows(SQLException.class, new Callable<Void>() {
+                public Void call() throws Exception {
+                    testStmt.executeUpdateAsync("SELECT 1");
+                    return null;
+                }
+            });
+            try {
+                testStmt.executeUpdateAsync("DO 1; SELECT 1").get();
+                fail("A statement returning a result set should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof SQLException);
+            }
+            this.rs = testConn.createStatement().executeQuery("SELECT COUNT(*) FROM testExecuteUpdateAsync");
+            assertTrue(this.rs.next());
+            assertEquals(100, this.rs.getInt(1));
+
+            // dependent actions may make blocking calls on the connection while other statements are still pending
+            CompletableFuture<Integer> dependent = testStmt.executeUpdateAsync("INSERT INTO testExecuteUpdateAsync VALUES (1000, 0)").thenApply(count -> {
+                try (Statement s = testConn.createStatement(); ResultSet countRs = s.executeQuery("SELECT COUNT(*) FROM testExecuteUpdateAsync WHERE id >= 1000")) {
+                    assertTrue(countRs.next());
+                    return countRs.getInt(1);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            futures.clear();
+            for (int i = 1; i <= 10; i++) {
+                futures.add(testStmt.executeUpdateAsync("INSERT INTO testExecuteUpdateAsync VALUES (" + (1000 + i) + ", 0)"));
+            }
+            int seen = dependent.get(10, TimeUnit.SECONDS);
+            assertTrue(seen >= 1 && seen <= 11);
+            for (CompletableFuture<Long> f : futures) {
+                assertEquals(Long.valueOf(1), f.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            testConn.close();
+        }
+
+        // not available without useAsyncSocketChannel
+        assertThrows(SQLException.class, new Callable<Void>() {
+            public Void call() throws Exception {
+                ((JdbcStatement) StatementsTest.this.conn.createStatement()).executeUpdateAsync("DELETE FROM testExecuteUpdateAsync");
+                return null;
+            }
+        });
+    }
 }
@@ -0,0 +1,3 @@
+-- Packed meeting times, see src/MeetingTimes.java for the format.
+-- 5 bytes per meeting, NULL until the class is next scraped.
+ALTER TABLE Classes ADD COLUMN meetingTimes VARBINARY(255) NULL AFTER schedule;
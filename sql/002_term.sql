@@ -0,0 +1,9 @@
+-- Classes of several terms are kept side by side, every term in its own partition.
+-- Rows scraped before this change all belong to 2020 Fall.
+-- ClassWriter.ensureTermPartition adds the partition for a new term the first time it is scraped.
+ALTER TABLE Classes ADD COLUMN term VARCHAR(6) NOT NULL DEFAULT '202036' FIRST;
+ALTER TABLE Classes ALTER COLUMN term DROP DEFAULT;
+ALTER TABLE Classes DROP PRIMARY KEY, ADD PRIMARY KEY (term, crn);
+ALTER TABLE Classes PARTITION BY LIST COLUMNS (term) (
+    PARTITION p202036 VALUES IN ('202036')
+);
@@ -0,0 +1,53 @@
+-- Strings repeated across classes move to lookup tables and the class rows keep their ids,
+-- see src/Dictionary.java. Binary collation so values differing only in case get their own id.
+-- No foreign keys, partitioned InnoDB tables don't support them.
+CREATE TABLE Subjects (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    value VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    UNIQUE KEY (value)
+);
+CREATE TABLE Courses LIKE Subjects;
+CREATE TABLE Titles LIKE Subjects;
+CREATE TABLE Instructors LIKE Subjects;
+CREATE TABLE Campuses LIKE Subjects;
+
+INSERT IGNORE INTO Subjects (value) SELECT DISTINCT subject FROM Classes WHERE subject IS NOT NULL;
+INSERT IGNORE INTO Courses (value) SELECT DISTINCT subjectCourse FROM Classes WHERE subjectCourse IS NOT NULL;
+INSERT IGNORE INTO Titles (value) SELECT DISTINCT title FROM Classes WHERE title IS NOT NULL;
+INSERT IGNORE INTO Instructors (value) SELECT DISTINCT instructor FROM Classes WHERE instructor IS NOT NULL;
+INSERT IGNORE INTO Campuses (value) SELECT DISTINCT campus FROM Classes WHERE campus IS NOT NULL;
+
+ALTER TABLE Classes
+    ADD COLUMN subjectId INT NULL AFTER subject,
+    ADD COLUMN courseId INT NULL AFTER subjectCourse,
+    ADD COLUMN titleId INT NULL AFTER title,
+    ADD COLUMN instructorId INT NULL AFTER instructor,
+    ADD COLUMN campusId INT NULL AFTER campus;
+
+UPDATE Classes c
+    LEFT JOIN Subjects s ON s.value = c.subject COLLATE utf8mb4_bin
+    LEFT JOIN Courses co ON co.value = c.subjectCourse COLLATE utf8mb4_bin
+    LEFT JOIN Titles t ON t.value = c.title COLLATE utf8mb4_bin
+    LEFT JOIN Instructors i ON i.value = c.instructor COLLATE utf8mb4_bin
+    LEFT JOIN Campuses ca ON ca.value = c.campus COLLATE utf8mb4_bin
+SET c.subjectId = s.id, c.courseId = co.id, c.titleId = t.id, c.instructorId = i.id, c.campusId = ca.id;
+
+ALTER TABLE Classes
+    DROP COLUMN subject,
+    DROP COLUMN subjectCourse,
+    DROP COLUMN title,
+    DROP COLUMN instructor,
+    DROP COLUMN campus;
+
+-- The scraper writes ClassRows, everything reading Classes keeps seeing the same columns as before
+RENAME TABLE Classes TO ClassRows;
+CREATE VIEW Classes AS
+SELECT c.term, c.crn, s.value AS subject, c.courseNumber, co.value AS subjectCourse, c.creditHours,
+       t.value AS title, c.capacity, c.currentCapacity, c.capacityFull, i.value AS instructor, c.schedule,
+       c.meetingTimes, ca.value AS campus
+FROM ClassRows c
+    LEFT JOIN Subjects s ON s.id = c.subjectId
+    LEFT JOIN Courses co ON co.id = c.courseId
+    LEFT JOIN Titles t ON t.id = c.titleId
+    LEFT JOIN Instructors i ON i.id = c.instructorId
+    LEFT JOIN Campuses ca ON ca.id = c.campusId;
@@ -0,0 +1,73 @@
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+// Runs class searches by driving a real browser through the registration pages.
+// Slower than HttpSearchClient, kept as a fallback in case the JSON endpoints change.
+public class BrowserSearchClient implements SearchClient {
+    private final WebDriver driver;
+    private final Term term;
+    private final RateLimiter rateLimiter;
+    private boolean termSelected = false;
+
+    public BrowserSearchClient(Term term, RateLimiter rateLimiter, boolean headless) {
+        this.term = term;
+        this.rateLimiter = rateLimiter;
+        this.driver = Main.createDriver(headless);
+        driver.get("https://prd-xereg.temple.edu/StudentRegistrationSsb/ssb/classSearch/classSearch");
+    }
+
+    // The selected term is kept in the browser session, so it only has to be picked once
+    @Override
+    public void warmUp() throws InterruptedException {
+        if (termSelected) { return; }
+        // Every page load counts against the shared rate limit instead of sleeping a fixed time
+        rateLimiter.acquire();
+        driver.get(Main.baseurl);
+        if (Main.selectTerm(driver, term.getDescription(), term.getCode()) < 0) {
+            throw new IllegalStateException("Failed selecting term " + term);
+        }
+        termSelected = true;
+    }
+
+    // A crashed browser or closed window throws on any command
+    @Override
+    public boolean isHealthy() {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Reader search(String subject, String startCourseNumber, String endCourseNumber)
+            throws InterruptedException {
+        warmUp();
+        rateLimiter.acquire();
+        Main.classSearch(driver, term.getCode(), subject, startCourseNumber, endCourseNumber);
+
+        // Firefox ONLY - Show raw data instead of JSON format
+        // try { waitForElementId(driver, "rawdata-tab", 10).click(); }
+        // catch (Exception e) {System.out.println("Can not find rawdata-tab button!"); }
+
+        // Extract raw data response as soon as it arrives
+        WebElement results = Main.waitForSearchResults(driver, 30);
+        if (results == null) {
+            throw new IllegalStateException("No search results for " + startCourseNumber + " : " + endCourseNumber);
+        }
+        return new StringReader(results.getText());
+    }
+
+    @Override
+    public void close() {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            System.out.println("Error closing browser: " + e);
+        }
+    }
+}
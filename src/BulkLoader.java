@@ -0,0 +1,145 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+// Loads sections with LOAD DATA LOCAL INFILE instead of one upsert per row, for the first load of a
+// term when every row is new. Rows are turned into tab separated lines in memory and handed to
+// Connector/J as the "file" through JdbcStatement.setLocalInfileInputStream, so nothing is written
+// to disk. They land in a temporary staging table and are merged into ClassRows with one
+// INSERT ... SELECT ... ON DUPLICATE KEY UPDATE.
+//
+// Needs allowLoadLocalInfile=true on the connection and local_infile enabled on the server.
+public class BulkLoader {
+    static final String STAGING_TABLE = "ClassStaging";
+
+    static final String COLUMNS = "term, crn, subjectId, courseNumber, courseId, creditHours, titleId, " +
+            "capacity, currentCapacity, capacityFull, instructorId, schedule, meetingTimes, campusId";
+
+    // Meeting times are sent as hex so the binary doesn't need escaping
+    static final String LOAD_QUERY = "LOAD DATA LOCAL INFILE 'classes.tsv' INTO TABLE " + STAGING_TABLE +
+            " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' " +
+            "(term, crn, subjectId, courseNumber, courseId, creditHours, titleId, capacity, currentCapacity, " +
+            "capacityFull, instructorId, schedule, @meetingTimes, campusId) SET meetingTimes = UNHEX(@meetingTimes)";
+
+    // Same update clause as ClassWriter.UPSERT_QUERY
+    static final String MERGE_QUERY = "INSERT INTO ClassRows (" + COLUMNS + ") SELECT " + COLUMNS +
+            " FROM " + STAGING_TABLE + " ON DUPLICATE KEY UPDATE capacity=VALUES(capacity), " +
+            "currentCapacity=VALUES(currentCapacity), capacityFull=VALUES(capacityFull), " +
+            "instructorId=VALUES(instructorId), schedule=VALUES(schedule), meetingTimes=VALUES(meetingTimes)";
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Connection conn;
+    private final StringBuilder line = new StringBuilder();
+    private ByteArrayOutputStream rows = new ByteArrayOutputStream();
+    private int count = 0;
+    private boolean stagingCreated = false;
+
+    public BulkLoader(Connection conn) {
+        this.conn = conn;
+    }
+
+    // Queue a section as one line of the next load
+    public void add(Section section) throws SQLException {
+        line.setLength(0);
+        field(section.getTerm());
+        field(section.getCrn());
+        field(Dictionary.SUBJECTS.id(conn, section.getSubject()));
+        field(section.getCourseNumber());
+        field(Dictionary.COURSES.id(conn, section.getSubjectCourse()));
+        field(section.getCreditHours());
+        field(Dictionary.TITLES.id(conn, section.getTitle()));
+        field(section.getCapacity());
+        field(section.getCurrentCapacity());
+        field(section.isCapacityFull() ? 1 : 0);
+        field(Dictionary.INSTRUCTORS.id(conn, section.getInstructor()));
+        field(section.getSchedule());
+        hex(section.getMeetingTimes());
+        field(Dictionary.CAMPUSES.id(conn, section.getCampus()));
+        line.setCharAt(line.length() - 1, '\n');
+
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        rows.write(bytes, 0, bytes.length);
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Load the queued rows into the staging table and merge them into ClassRows. The caller commits.
+    public void load() throws SQLException {
+        if (count == 0) { return; }
+        try (Statement stmt = conn.createStatement()) {
+            if (!stagingCreated) {
+                // Same column types as ClassRows, without its keys and partitions. Temporary tables belong to
+                // the connection, so every writer has its own and creating one doesn't commit.
+                stmt.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + STAGING_TABLE +
+                        " SELECT " + COLUMNS + " FROM ClassRows LIMIT 0");
+                stagingCreated = true;
+            }
+            stmt.execute("DELETE FROM " + STAGING_TABLE);
+
+            stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(rows.toByteArray()));
+            stmt.execute(LOAD_QUERY);
+            stmt.executeUpdate(MERGE_QUERY);
+            stmt.execute("DELETE FROM " + STAGING_TABLE);
+        } finally {
+            clear();
+        }
+    }
+
+    // Drop the queued rows
+    public void clear() {
+        rows = new ByteArrayOutputStream();
+        count = 0;
+    }
+
+    private void field(int value) {
+        line.append(value).append('\t');
+    }
+
+    private void field(Integer value) {
+        if (value == null) {
+            line.append("\\N\t");
+        } else {
+            field(value.intValue());
+        }
+    }
+
+    // Escape the characters LOAD DATA gives a meaning to
+    private void field(String value) {
+        if (value == null) {
+            line.append("\\N\t");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': line.append("\\\\"); break;
+                case '\t': line.append("\\t"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\0': line.append("\\0"); break;
+                default: line.append(c);
+            }
+        }
+        line.append('\t');
+    }
+
+    private void hex(byte[] value) {
+        if (value == null) {
+            line.append("\\N\t");
+            return;
+        }
+        for (byte b : value) {
+            line.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+        }
+        line.append('\t');
+    }
+}
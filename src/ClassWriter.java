@@ -0,0 +1,285 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Writes sections to the ClassRows table in batches. One prepared statement is kept for the life of
+// the connection and every batch is flushed in a single transaction. Sections the snapshot says
+// are unchanged since they were last written are skipped.
+//
+// The connection should be opened with rewriteBatchedStatements=true so Connector/J sends each
+// batch as one multi-row INSERT. That rewrite is skipped when the ON DUPLICATE KEY UPDATE clause
+// has parameters in it, which is why the update clause uses VALUES() instead of repeating them.
+//
+// Subject, course, title, instructor and campus are written as ids into their Dictionary tables.
+// The Classes view joins them back for readers.
+//
+// Terms switched to bulk loading (bulkLoad) are sent through a BulkLoader in larger batches instead.
+//
+// A CommitListener passed to write is told once whether the batch holding the section was committed,
+// so callers can tell which of their sections actually made it into the database.
+public class ClassWriter implements AutoCloseable {
+    public interface CommitListener {
+        // The section is committed, or was skipped as unchanged
+        void committed();
+
+        // The section was not written, either on its own or because its batch was rolled back
+        void failed();
+    }
+
+    // Insert new class if it doesn't exist, and update capacity if class already exists in database
+    // https://stackoverflow.com/questions/61069118/java-sql-insert-into-table-only-new-entries
+    public static final String UPSERT_QUERY = "INSERT INTO ClassRows (" +
+            "term, crn, subjectId, courseNumber, courseId, creditHours, titleId, " +
+            "capacity, currentCapacity, capacityFull, instructorId, schedule, meetingTimes, campusId) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE capacity=VALUES(capacity), currentCapacity=VALUES(currentCapacity), " +
+            "capacityFull=VALUES(capacityFull), instructorId=VALUES(instructorId), schedule=VALUES(schedule), " +
+            "meetingTimes=VALUES(meetingTimes)";
+
+    private final Connection conn;
+    private final int batchSize;
+    private final SectionSnapshot snapshot;
+    private final PreparedStatement preparedStmt;
+    // Sections in the current batch, so the snapshot can forget them if the batch fails
+    private final List<Section> pending = new ArrayList<>();
+    private final List<CommitListener> pendingListeners = new ArrayList<>();
+
+    private final Set<String> bulkTerms = new HashSet<>();
+    private final List<Section> bulkPending = new ArrayList<>();
+    private final List<CommitListener> bulkListeners = new ArrayList<>();
+    private BulkLoader bulkLoader;
+    private int bulkBatchSize;
+
+    public ClassWriter(Connection conn, int batchSize, SectionSnapshot snapshot) throws SQLException {
+        this.conn = conn;
+        this.batchSize = Math.max(1, batchSize);
+        this.snapshot = snapshot;
+        conn.setAutoCommit(false);
+        this.preparedStmt = conn.prepareStatement(UPSERT_QUERY);
+    }
+
+    // Queue a section if it changed, sending the batch once it is full.
+    // Returns false if the section was skipped because it is already up to date.
+    public boolean write(Section section) throws SQLException {
+        return write(section, null);
+    }
+
+    // Same as write(section), the listener is called exactly once, even if this throws
+    public synchronized boolean write(Section section, CommitListener listener) throws SQLException {
+        if (!snapshot.update(section)) {
+            ScrapeMetrics.ROWS_UNCHANGED.inc();
+            committed(Collections.singletonList(listener));
+            return false;
+        }
+
+        if (bulkTerms.contains(section.getTerm())) {
+            try {
+                bulkLoader.add(section);
+            } catch (SQLException e) {
+                snapshot.forget(Collections.singletonList(section));
+                failed(Collections.singletonList(listener));
+                throw e;
+            }
+            bulkPending.add(section);
+            bulkListeners.add(listener);
+            if (bulkPending.size() >= bulkBatchSize) { flushBulk(); }
+            return true;
+        }
+
+        addBatch(section, listener);
+        if (pending.size() >= batchSize) { flushBatch(); }
+        return true;
+    }
+
+    // Write the sections of a term with LOAD DATA from now on, used for a term's first load
+    public synchronized void bulkLoad(String term, int batchSize) {
+        if (bulkLoader == null) { bulkLoader = new BulkLoader(conn); }
+        bulkBatchSize = Math.max(1, batchSize);
+        bulkTerms.add(term);
+    }
+
+    // Load what is queued and go back to batched upserts for the term, once its first load is in
+    public synchronized void endBulkLoad(String term) throws SQLException {
+        if (!bulkTerms.contains(term)) { return; }
+        try {
+            flushBulk();
+        } finally {
+            bulkTerms.remove(term);
+        }
+    }
+
+    private void addBatch(Section section, CommitListener listener) throws SQLException {
+        try {
+            preparedStmt.setString(1, section.getTerm());
+            preparedStmt.setInt(2, section.getCrn());
+            setId(3, Dictionary.SUBJECTS, section.getSubject());
+            preparedStmt.setInt(4, section.getCourseNumber());
+            setId(5, Dictionary.COURSES, section.getSubjectCourse());
+            preparedStmt.setInt(6, section.getCreditHours());
+            setId(7, Dictionary.TITLES, section.getTitle());
+            preparedStmt.setInt(8, section.getCapacity());
+            preparedStmt.setInt(9, section.getCurrentCapacity());
+            preparedStmt.setBoolean(10, section.isCapacityFull());
+            setId(11, Dictionary.INSTRUCTORS, section.getInstructor());
+            preparedStmt.setString(12, section.getSchedule());
+            preparedStmt.setBytes(13, section.getMeetingTimes());
+            setId(14, Dictionary.CAMPUSES, section.getCampus());
+        } catch (SQLException e) {
+            // Not in the batch, so it has to be sent again next time
+            snapshot.forget(Collections.singletonList(section));
+            failed(Collections.singletonList(listener));
+            throw e;
+        }
+        preparedStmt.addBatch();
+        pending.add(section);
+        pendingListeners.add(listener);
+    }
+
+    private void setId(int parameter, Dictionary dictionary, String value) throws SQLException {
+        Integer id = dictionary.id(conn, value);
+        if (id == null) {
+            preparedStmt.setNull(parameter, Types.INTEGER);
+        } else {
+            preparedStmt.setInt(parameter, id);
+        }
+    }
+
+    // Send every queued section
+    public synchronized void flush() throws SQLException {
+        flushBulk();
+        flushBatch();
+    }
+
+    // Load the queued bulk sections in one transaction. If the server won't take LOAD DATA LOCAL (it is off
+    // by default) the sections are moved to the upsert batch and their terms aren't bulk loaded any more.
+    // Any other error fails the sections like a failed batch, the terms stay in bulk mode.
+    private void flushBulk() throws SQLException {
+        if (bulkPending.isEmpty()) { return; }
+        long start = System.nanoTime();
+        List<Section> sections = new ArrayList<>(bulkPending);
+        List<CommitListener> listeners = new ArrayList<>(bulkListeners);
+        bulkPending.clear();
+        bulkListeners.clear();
+        try {
+            bulkLoader.load();
+            conn.commit();
+            ScrapeMetrics.BULK_LOAD_SECONDS.observeNanos(System.nanoTime() - start);
+            ScrapeMetrics.ROWS_UPSERTED.add(sections.size());
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            if (!isLocalInfileRefused(e)) {
+                System.out.println("Error bulk loading " + sections.size() + " classes, rolling back: " + e);
+                snapshot.forget(sections);
+                failed(listeners);
+                throw e;
+            }
+
+            System.out.println("Server refused LOAD DATA LOCAL for " + sections.size() +
+                    " classes, using batched upserts: " + e);
+            for (Section section : sections) {
+                bulkTerms.remove(section.getTerm());
+            }
+            for (int i = 0; i < sections.size(); i++) {
+                try {
+                    addBatch(sections.get(i), listeners.get(i));
+                    if (pending.size() >= batchSize) { flushBatch(); }
+                } catch (SQLException batchError) {
+                    // The failed batch was forgotten already, the sections after it never made it in
+                    snapshot.forget(sections.subList(i + 1, sections.size()));
+                    failed(listeners.subList(i + 1, listeners.size()));
+                    throw batchError;
+                }
+            }
+            return;
+        }
+        committed(listeners);
+    }
+
+    // ER_NOT_ALLOWED_COMMAND (local_infile is off on the server) or ER_CLIENT_LOCAL_FILES_DISABLED
+    private static boolean isLocalInfileRefused(SQLException e) {
+        return e.getErrorCode() == 1148 || e.getErrorCode() == 3948;
+    }
+
+    // Send the queued upserts in one transaction
+    private void flushBatch() throws SQLException {
+        if (pending.isEmpty()) { return; }
+        long start = System.nanoTime();
+        List<CommitListener> listeners = new ArrayList<>(pendingListeners);
+        pendingListeners.clear();
+        try {
+            preparedStmt.executeBatch();
+            conn.commit();
+            ScrapeMetrics.DB_BATCH_SECONDS.observeNanos(System.nanoTime() - start);
+            ScrapeMetrics.ROWS_UPSERTED.add(pending.size());
+        } catch (SQLException e) {
+            System.out.println("Error writing batch of " + pending.size() + " classes, rolling back: " + e);
+            preparedStmt.clearBatch();
+            try {
+                conn.rollback();
+            } finally {
+                snapshot.forget(pending);
+                pending.clear();
+                failed(listeners);
+            }
+            throw e;
+        }
+        pending.clear();
+        committed(listeners);
+    }
+
+    private static void committed(List<CommitListener> listeners) {
+        for (CommitListener listener : listeners) {
+            if (listener != null) { listener.committed(); }
+        }
+    }
+
+    private static void failed(List<CommitListener> listeners) {
+        for (CommitListener listener : listeners) {
+            if (listener != null) { listener.failed(); }
+        }
+    }
+
+    // Every term is kept in its own partition of the ClassRows table, add it the first time a term is scraped
+    public static void ensureTermPartition(Connection conn, String termCode) throws SQLException {
+        String query = "SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ClassRows' AND PARTITION_NAME = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, "p" + termCode);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) { return; }
+            }
+        }
+
+        // Term codes are all digits, anything else is not safe to put into DDL
+        if (!termCode.matches("\\d+")) {
+            throw new SQLException("Invalid term code: " + termCode);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE ClassRows ADD PARTITION (PARTITION p" + termCode +
+                    " VALUES IN ('" + termCode + "'))");
+        }
+        System.out.println("Added partition for term " + termCode);
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            preparedStmt.close();
+            conn.setAutoCommit(true);
+        }
+    }
+}
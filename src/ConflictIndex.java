@@ -0,0 +1,152 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Which sections of a term overlap in time, built once the term has been loaded so schedule
+// generation can look conflicts up instead of comparing every pair of sections.
+//
+// Every meeting is mapped onto 5 minute slots of the week. Sections that share a slot are
+// candidates and are confirmed with MeetingTimes.conflicts, since a slot can be shared by two
+// meetings that only touch (one ends at 9:52, the next starts at 9:53).
+//
+// File format (big endian): int magic, int version, int section count, then for every section
+// its CRN, the number of conflicting CRNs, and those CRNs in ascending order.
+public class ConflictIndex {
+    public static final int MAGIC = 0x434f4e46; // "CONF"
+    public static final int VERSION = 1;
+
+    static final int SLOT_MINUTES = 5;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private final Map<Integer, byte[]> meetingTimes = new ConcurrentHashMap<>();
+
+    // Sections are keyed by CRN, so overlapping search windows don't count a section twice
+    public void add(Section section) {
+        meetingTimes.put(section.getCrn(), section.getMeetingTimes());
+    }
+
+    public int size() {
+        return meetingTimes.size();
+    }
+
+    // Map every CRN to the CRNs it conflicts with
+    public Map<Integer, int[]> build() {
+        int[] crns = new int[meetingTimes.size()];
+        List<byte[]> times = new ArrayList<>(crns.length);
+        int n = 0;
+        for (Map.Entry<Integer, byte[]> entry : new TreeMap<>(meetingTimes).entrySet()) {
+            crns[n++] = entry.getKey();
+            times.add(entry.getValue());
+        }
+
+        // Slot of the week -> sections meeting during it
+        BitSet[] slots = new BitSet[7 * SLOTS_PER_DAY];
+        for (int i = 0; i < crns.length; i++) {
+            for (int slot : slotsOf(times.get(i))) {
+                if (slots[slot] == null) { slots[slot] = new BitSet(crns.length); }
+                slots[slot].set(i);
+            }
+        }
+
+        Map<Integer, int[]> conflicts = new HashMap<>();
+        for (int i = 0; i < crns.length; i++) {
+            BitSet candidates = new BitSet(crns.length);
+            for (int slot : slotsOf(times.get(i))) {
+                candidates.or(slots[slot]);
+            }
+            candidates.clear(i);
+
+            int[] found = new int[candidates.cardinality()];
+            int count = 0;
+            for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+                if (MeetingTimes.conflicts(times.get(i), times.get(j))) { found[count++] = crns[j]; }
+            }
+            int[] trimmed = new int[count];
+            System.arraycopy(found, 0, trimmed, 0, count);
+            conflicts.put(crns[i], trimmed);
+        }
+        return conflicts;
+    }
+
+    // Every 5 minute slot of the week the packed meetings cover
+    static int[] slotsOf(byte[] packed) {
+        if (packed == null) { return new int[0]; }
+
+        BitSet covered = new BitSet(7 * SLOTS_PER_DAY);
+        for (int i = 0; i < MeetingTimes.count(packed); i++) {
+            int firstSlot = MeetingTimes.start(packed, i) / SLOT_MINUTES;
+            int endSlot = Math.min(SLOTS_PER_DAY, (MeetingTimes.end(packed, i) + SLOT_MINUTES - 1) / SLOT_MINUTES);
+            int days = MeetingTimes.days(packed, i);
+            for (int day = 0; day < 7; day++) {
+                if ((days & (1 << day)) != 0 && firstSlot < endSlot) {
+                    covered.set(day * SLOTS_PER_DAY + firstSlot, day * SLOTS_PER_DAY + endSlot);
+                }
+            }
+        }
+        return covered.stream().toArray();
+    }
+
+    // Build the index and write it to file, returns the number of sections written
+    public int write(File file) throws IOException {
+        Map<Integer, int[]> conflicts = new TreeMap<>(build());
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can't create directory " + parent);
+        }
+
+        // Write to a temporary file first so readers never see a half written index
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(conflicts.size());
+            for (Map.Entry<Integer, int[]> entry : conflicts.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                for (int crn : entry.getValue()) {
+                    out.writeInt(crn);
+                }
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Can't replace " + file);
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Can't rename " + temp + " to " + file);
+        }
+        return conflicts.size();
+    }
+
+    // Read an index written by write()
+    public static Map<Integer, int[]> read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a conflict index this version can read");
+            }
+            int sections = in.readInt();
+            Map<Integer, int[]> conflicts = new HashMap<>(sections * 2);
+            for (int i = 0; i < sections; i++) {
+                int crn = in.readInt();
+                int[] others = new int[in.readInt()];
+                for (int j = 0; j < others.length; j++) {
+                    others[j] = in.readInt();
+                }
+                conflicts.put(crn, others);
+            }
+            return conflicts;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// The windows of a full crawl that are already in the database, so a crawl that died part way can
+// pick up where it stopped instead of searching the whole term again. Windows finished less than
+// maxAgeMillis ago are skipped on restart. The file is deleted once a full crawl completes.
+//
+// A window only counts as finished once every one of its sections was written and the batches
+// holding them were committed: the pipeline reports a window to completed() only after that commit,
+// and the crawler flushes the writers before saving what was collected.
+//
+// File format: one finished window per line, "start end finishedMillis", appended as windows finish.
+public class CrawlCheckpoint {
+    private final File file;
+    private final String subject;
+    private final long maxAgeMillis;
+    // Newest finish time of every window in the file
+    private final Map<SearchWindow, Long> finished = new HashMap<>();
+    // Finished but not yet known to be committed
+    private final ConcurrentLinkedQueue<SearchWindow> completed = new ConcurrentLinkedQueue<>();
+
+    public CrawlCheckpoint(File file, String subject, long maxAgeMillis) {
+        this.file = file;
+        this.subject = subject;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    // Read the windows finished by an earlier run, returns how many are still fresh
+    public synchronized int load() {
+        finished.clear();
+        if (!file.exists()) { return 0; }
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                // Skip a line a crash cut short
+                if (fields.length != 3) { continue; }
+                try {
+                    int start = Integer.parseInt(fields[0]);
+                    int end = Integer.parseInt(fields[1]);
+                    if (start >= end) { continue; }
+                    finished.merge(new SearchWindow(subject, start, end), Long.parseLong(fields[2]), Math::max);
+                } catch (NumberFormatException ignore) { }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading checkpoint " + file + ", starting over: " + e);
+            finished.clear();
+        }
+        finished.values().removeIf(time -> System.currentTimeMillis() - time >= maxAgeMillis);
+        return finished.size();
+    }
+
+    // True if the whole window was covered by windows finished recently enough
+    public synchronized boolean isFresh(SearchWindow window) {
+        List<SearchWindow> fresh = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<SearchWindow, Long> entry : finished.entrySet()) {
+            if (now - entry.getValue() < maxAgeMillis) { fresh.add(entry.getKey()); }
+        }
+        fresh.sort(Comparator.comparingInt(SearchWindow::getStart));
+
+        // Finished windows can be halves of the window if it had to be split last time
+        int covered = window.getStart();
+        for (SearchWindow done : fresh) {
+            if (done.getStart() > covered) { break; }
+            covered = Math.max(covered, done.getEnd());
+            if (covered >= window.getEnd()) { return true; }
+        }
+        return false;
+    }
+
+    // Windows of the list that still have to be searched
+    public List<SearchWindow> remaining(List<SearchWindow> windows) {
+        List<SearchWindow> remaining = new ArrayList<>();
+        for (SearchWindow window : windows) {
+            if (!isFresh(window)) { remaining.add(window); }
+        }
+        return remaining;
+    }
+
+    // All sections of the window were written and the batches holding them committed
+    public void completed(SearchWindow window) {
+        completed.add(window);
+    }
+
+    // Take the windows completed so far, call after flushing the writers so it includes the last batches
+    public List<SearchWindow> takeCompleted() {
+        List<SearchWindow> windows = new ArrayList<>();
+        SearchWindow window;
+        while ((window = completed.poll()) != null) {
+            windows.add(window);
+        }
+        return windows;
+    }
+
+    // Record windows whose sections are committed, synced to disk before returning
+    public synchronized void save(List<SearchWindow> windows) throws IOException {
+        if (windows.isEmpty()) { return; }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can't create directory " + parent);
+        }
+
+        // Start on a new line if a crash cut the last one short
+        boolean partialLine = false;
+        if (file.length() > 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(raf.length() - 1);
+                partialLine = raf.read() != '\n';
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        try (FileOutputStream stream = new FileOutputStream(file, true)) {
+            Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            PrintWriter out = new PrintWriter(writer);
+            if (partialLine) { out.print('\n'); }
+            for (SearchWindow window : windows) {
+                out.print(window.getStart() + " " + window.getEnd() + " " + now + "\n");
+                finished.put(window, now);
+            }
+            out.flush();
+            if (out.checkError()) { throw new IOException("Error writing checkpoint " + file); }
+            stream.getFD().sync();
+        }
+    }
+
+    // The crawl completed, the next one starts from the beginning
+    public synchronized void clear() {
+        finished.clear();
+        completed.clear();
+        if (file.exists() && !file.delete()) {
+            System.out.println("Error deleting checkpoint " + file);
+        }
+    }
+}
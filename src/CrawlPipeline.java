@@ -0,0 +1,357 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Fetch, parse and write run as separate stages with their own threads, so searching, parsing and
+// the database all stay busy at the same time:
+//
+//   fetchers --(responses)--> parsers --(sections)--> writers
+//
+// Both queues are bounded. When MySQL falls behind the sections queue fills up and blocks the
+// parsers, which fills the responses queue and blocks the fetchers, so nothing piles up in memory.
+// Responses wait in the queue deflate compressed. The fetch stage reads each response completely before
+// a parser sees it, giving up parsing while the response downloads so fetchers never wait on parsers.
+//
+// Several terms can be crawled at once, each crawl is a Job and the stages are shared.
+public class CrawlPipeline {
+    // What a job does with its results
+    public interface JobHandler {
+        // A response was parsed, returns windows to search again (e.g. the halves of a truncated window)
+        List<SearchWindow> onResponse(SearchWindow window, SearchResultsParser results);
+
+        // Called on a writer thread for every section parsed, before the section is given to the writer
+        void onSection(SearchWindow window, Section section) throws Exception;
+
+        // Every section of the window was written and its batch committed. Not called for a window
+        // that was split, its halves are reported instead. May be called from whichever thread flushed.
+        void onWindowDone(SearchWindow window);
+    }
+
+    // One crawl of a term moving through the pipeline
+    public static class Job {
+        private final String termCode;
+        private final SessionPool sessions;
+        private final ResponseArchive archive;
+        private final JobHandler handler;
+        // Windows and sections of this job still somewhere in the pipeline
+        private final AtomicInteger pending = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        public Job(String termCode, SessionPool sessions, ResponseArchive archive, JobHandler handler) {
+            this.termCode = termCode;
+            this.sessions = sessions;
+            this.archive = archive;
+            this.handler = handler;
+        }
+
+        private void started(int count) {
+            pending.addAndGet(count);
+        }
+
+        private void finished() {
+            if (pending.decrementAndGet() == 0) { done.countDown(); }
+        }
+
+        // Wait for every window and section of the job, returns false if the timeout ran out first
+        public boolean await(long timeoutMillis) throws InterruptedException {
+            return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Sections of one window still waiting to be committed
+    private static class WindowProgress {
+        final SearchWindow window;
+        // The parse of the window plus every section handed off and not committed yet
+        private final AtomicInteger remaining = new AtomicInteger(1);
+        private volatile boolean failed = false;
+
+        WindowProgress(SearchWindow window) {
+            this.window = window;
+        }
+
+        void started() {
+            remaining.incrementAndGet();
+        }
+
+        void fail() {
+            failed = true;
+        }
+
+        void finished(Job job) {
+            if (remaining.decrementAndGet() == 0 && !failed) { job.handler.onWindowDone(window); }
+        }
+    }
+
+    private static class Fetched {
+        final Job job;
+        final SearchWindow window;
+        final byte[] compressed;
+
+        Fetched(Job job, SearchWindow window, byte[] compressed) {
+            this.job = job;
+            this.window = window;
+            this.compressed = compressed;
+        }
+    }
+
+    private static class Parsed {
+        final Job job;
+        final WindowProgress progress;
+        final Section section;
+
+        Parsed(Job job, WindowProgress progress, Section section) {
+            this.job = job;
+            this.progress = progress;
+            this.section = section;
+        }
+    }
+
+    private final ExecutorService fetchers;
+    private final ExecutorService parsers;
+    private final ExecutorService writerThreads;
+    private final List<ClassWriter> writers;
+    private final BlockingQueue<Fetched> responses;
+    private final BlockingQueue<Parsed> sections;
+
+    private final StageStats fetchStats;
+    private final StageStats parseStats;
+    private final StageStats writeStats;
+
+    // One writer thread is started per ClassWriter, each writer should have its own connection
+    public CrawlPipeline(int fetchThreads, int parseThreads, List<ClassWriter> writers, int responseQueueSize,
+                         int sectionQueueSize) {
+        this.writers = writers;
+        this.responses = new ArrayBlockingQueue<>(Math.max(1, responseQueueSize));
+        this.sections = new ArrayBlockingQueue<>(Math.max(1, sectionQueueSize));
+        this.fetchStats = new StageStats("fetch", null);
+        this.parseStats = new StageStats("parse", responses);
+        this.writeStats = new StageStats("write", sections);
+
+        this.fetchers = Executors.newFixedThreadPool(Math.max(1, fetchThreads));
+        this.parsers = Executors.newFixedThreadPool(Math.max(1, parseThreads));
+        for (int i = 0; i < Math.max(1, parseThreads); i++) {
+            parsers.submit(this::parseLoop);
+        }
+        this.writerThreads = Executors.newFixedThreadPool(writers.size());
+        for (ClassWriter writer : writers) {
+            writerThreads.submit(() -> writeLoop(writer));
+        }
+    }
+
+    // Push every window of the job through the pipeline and wait until all its sections are written
+    public void run(Job job, List<SearchWindow> windows) throws InterruptedException {
+        start(job, windows);
+        job.done.await();
+        flush();
+    }
+
+    // Push every window of the job into the pipeline without waiting, see Job.await
+    public void start(Job job, List<SearchWindow> windows) {
+        if (windows.isEmpty()) {
+            job.done.countDown();
+            return;
+        }
+        job.started(windows.size());
+        for (SearchWindow window : windows) {
+            fetch(job, window);
+        }
+    }
+
+    private void fetch(Job job, SearchWindow window) {
+        fetchers.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                Log.debug("Searching " + window);
+                byte[] compressed = job.sessions.withSession(client -> compress(client.search(
+                        window.getSubject(), window.getStartCourseNumber(), window.getEndCourseNumber())));
+                ScrapeMetrics.FETCH_SECONDS.observeNanos(System.nanoTime() - start);
+                if (job.archive != null) {
+                    job.archive.append(job.termCode, window, System.currentTimeMillis(), compressed);
+                }
+                fetchStats.record(System.nanoTime() - start);
+
+                responses.put(new Fetched(job, window, compressed));
+                parseStats.queued();
+            } catch (Exception e) {
+                // The session pool already replaced the session in case it is broken
+                Log.warn("Error searching window " + window + ": " + e);
+                ScrapeMetrics.FETCH_ERRORS.inc();
+                fetchStats.error();
+                job.finished();
+            }
+        });
+    }
+
+    private void parseLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Fetched fetched;
+            try {
+                fetched = responses.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            Job job = fetched.job;
+            WindowProgress progress = new WindowProgress(fetched.window);
+            long start = System.nanoTime();
+            try (Reader data = new InputStreamReader(new InflaterInputStream(
+                    new ByteArrayInputStream(fetched.compressed)), StandardCharsets.UTF_8)) {
+                SearchResultsParser results = Main.parseClasses(data, job.termCode, section -> {
+                    progress.started();
+                    job.started(1);
+                    sections.put(new Parsed(job, progress, section));
+                    writeStats.queued();
+                });
+                parseStats.record(System.nanoTime() - start);
+
+                if (results != null) {
+                    List<SearchWindow> again = job.handler.onResponse(fetched.window, results);
+                    if (!again.isEmpty()) { progress.fail(); }
+                    job.started(again.size());
+                    for (SearchWindow window : again) {
+                        fetch(job, window);
+                    }
+                } else {
+                    progress.fail();
+                    parseStats.error();
+                }
+            } catch (Exception e) {
+                System.out.println("Error parsing window " + fetched.window + ": " + e);
+                progress.fail();
+                parseStats.error();
+            } finally {
+                progress.finished(job);
+                job.finished();
+            }
+        }
+    }
+
+    private void writeLoop(ClassWriter writer) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Parsed parsed;
+            try {
+                parsed = sections.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            WindowProgress progress = parsed.progress;
+            // The section counts against its window until the batch holding it is committed, which may
+            // happen in a later write or flush, and a rolled back batch fails every window in it
+            ClassWriter.CommitListener listener = new ClassWriter.CommitListener() {
+                @Override
+                public void committed() {
+                    progress.finished(parsed.job);
+                }
+
+                @Override
+                public void failed() {
+                    progress.fail();
+                    progress.finished(parsed.job);
+                }
+            };
+            long start = System.nanoTime();
+            boolean handedOff = false;
+            try {
+                parsed.job.handler.onSection(progress.window, parsed.section);
+                handedOff = true;
+                writer.write(parsed.section, listener);
+                writeStats.record(System.nanoTime() - start);
+            } catch (Exception e) {
+                Log.sampled(Log.Level.WARN, "write", "Error writing class crn: " + parsed.section.getCrn() +
+                        "! Error: " + e);
+                writeStats.error();
+                // Once the writer has the section it reports the failure to the listener itself
+                if (!handedOff) { listener.failed(); }
+            } finally {
+                parsed.job.finished();
+            }
+        }
+    }
+
+    // Send the partial batch of every writer, returns false if any of them failed
+    public boolean flush() {
+        boolean flushed = true;
+        for (ClassWriter writer : writers) {
+            try {
+                writer.flush();
+            } catch (SQLException e) {
+                System.out.println("Error writing last batch: " + e);
+                flushed = false;
+            }
+        }
+        return flushed;
+    }
+
+    // Switch every writer back to batched upserts for the term, see ClassWriter.endBulkLoad
+    public void endBulkLoad(String termCode) {
+        for (ClassWriter writer : writers) {
+            try {
+                writer.endBulkLoad(termCode);
+            } catch (SQLException e) {
+                System.out.println("Error writing last bulk load: " + e);
+            }
+        }
+    }
+
+    // Read the whole response, keeping it compressed until a parser gets to it
+    private static byte[] compress(Reader data) throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater();
+        // Nothing to release if reading fails part way, the output is only held in memory
+        Writer out = new OutputStreamWriter(new DeflaterOutputStream(compressed, deflater), StandardCharsets.UTF_8);
+        try (Reader in = data) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.close();
+            // The deflater saw the UTF-8 encoded response, so its input is the size of the JSON
+            ScrapeMetrics.RESPONSE_BYTES.observe(deflater.getBytesRead());
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    public List<StageStats> getStats() {
+        List<StageStats> stats = new ArrayList<>();
+        stats.add(fetchStats);
+        stats.add(parseStats);
+        stats.add(writeStats);
+        return stats;
+    }
+
+    // One line per stage, the stage with the deepest queue in front of it is the bottleneck
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (StageStats stats : getStats()) {
+            report.append(stats).append('\n');
+        }
+        return report.toString();
+    }
+
+    public void close() {
+        fetchers.shutdownNow();
+        parsers.shutdownNow();
+        writerThreads.shutdownNow();
+    }
+}
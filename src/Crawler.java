@@ -0,0 +1,169 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Runs the search windows of a term through the pipeline and hands every section found to the
+// database writers and to whatever is built from the full term (conflict index, seat poller).
+public class Crawler {
+    private final Term term;
+    private final CrawlPipeline pipeline;
+    private final SessionPool sessions;
+    private final WindowPlanner planner;
+    private final SeatPoller poller;
+    private final ResponseArchive archive;
+    private final CrawlCheckpoint checkpoint;
+    private final long checkpointMillis;
+    private ConflictIndex conflicts = new ConflictIndex();
+    private SectionExport export = new SectionExport();
+
+    public Crawler(Term term, CrawlPipeline pipeline, SessionPool sessions, WindowPlanner planner,
+                   SeatPoller poller, ResponseArchive archive, CrawlCheckpoint checkpoint, long checkpointMillis) {
+        this.term = term;
+        this.pipeline = pipeline;
+        this.sessions = sessions;
+        this.planner = planner;
+        this.poller = poller;
+        this.archive = archive;
+        this.checkpoint = checkpoint;
+        this.checkpointMillis = Math.max(1, checkpointMillis);
+    }
+
+    // Search every window of the term, then write the files built from the whole term
+    public void fullCrawl() throws InterruptedException {
+        System.out.println("Starting full crawl of " + term);
+        conflicts = new ConflictIndex();
+        export = new SectionExport();
+        List<SearchWindow> windows = planner.load();
+
+        // Pick up after a crawl that died part way
+        checkpoint.load();
+        List<SearchWindow> remaining = checkpoint.remaining(windows);
+        boolean resumed = remaining.size() < windows.size();
+        if (resumed) {
+            System.out.println("Resuming crawl of " + term + ", " + (windows.size() - remaining.size()) +
+                    " of " + windows.size() + " windows were finished recently");
+        }
+        crawl(remaining, checkpoint);
+        poller.fullRefreshDone();
+        // The term's first load is flushed, polling and later crawls only upsert the rows that changed
+        pipeline.endBulkLoad(term.getCode());
+
+        // Keep the checkpoint if some windows failed so the next run only retries those
+        List<SearchWindow> failed = checkpoint.remaining(windows);
+        if (failed.isEmpty()) {
+            checkpoint.clear();
+        } else {
+            System.out.println(failed.size() + " windows of " + term + " failed, keeping checkpoint");
+        }
+
+        // Remember how big each window turned out to be for the next full crawl
+        try {
+            planner.save();
+        } catch (IOException e) {
+            System.out.println("Error saving search windows: " + e);
+        }
+
+        // The sections of windows skipped on resume weren't seen, the exports would be missing them
+        if (resumed) {
+            System.out.println("Not writing exports for " + term + ", this crawl skipped windows");
+            return;
+        }
+
+        // Precompute which sections overlap now that the whole term has been seen
+        try {
+            File conflictFile = new File(Main.exportDir(), "conflicts-" + term.getCode() + ".bin");
+            System.out.println("Wrote conflicts for " + conflicts.write(conflictFile) + " classes to " + conflictFile);
+        } catch (IOException e) {
+            System.out.println("Error writing conflict index: " + e);
+        }
+
+        // Every section of the term for the website and API to map instead of querying the database
+        try {
+            File exportFile = new File(Main.exportDir(), "sections-" + term.getCode() + ".bin");
+            System.out.println("Wrote " + export.write(exportFile, term.getCode()) + " classes to " + exportFile);
+        } catch (IOException e) {
+            System.out.println("Error writing section export: " + e);
+        }
+    }
+
+    // Search only the given windows
+    public void crawl(List<SearchWindow> windows) throws InterruptedException {
+        crawl(windows, null);
+    }
+
+    // Search the windows, saving the windows that finished to the checkpoint as their sections are committed
+    private void crawl(List<SearchWindow> windows, CrawlCheckpoint checkpoint) throws InterruptedException {
+        final ConflictIndex index = conflicts;
+        final SectionExport sections = export;
+        CrawlPipeline.Job job = new CrawlPipeline.Job(term.getCode(), sessions, archive, new CrawlPipeline.JobHandler() {
+            @Override
+            public List<SearchWindow> onResponse(SearchWindow window, SearchResultsParser results) {
+                // The page didn't hold every match, search each half of the window instead
+                if (WindowPlanner.truncated(results) && window.getEnd() - window.getStart() > 1) {
+                    System.out.println("Window " + window + " matched " + results.getTotalCount() + " classes, splitting");
+                    List<SearchWindow> halves = planner.halves(window);
+                    planner.replace(window, halves);
+                    return halves;
+                }
+                planner.record(window, results.getTotalCount());
+                return Collections.emptyList();
+            }
+
+            @Override
+            public void onSection(SearchWindow window, Section section) {
+                index.add(section);
+                sections.add(section);
+                poller.observe(window, section);
+            }
+
+            @Override
+            public void onWindowDone(SearchWindow window) {
+                if (checkpoint != null) { checkpoint.completed(window); }
+            }
+        });
+
+        pipeline.start(job, new ArrayList<>(windows));
+        while (!job.await(checkpointMillis)) {
+            if (checkpoint != null) { saveCheckpoint(checkpoint); }
+        }
+        // Don't leave a partial batch waiting until the next crawl
+        if (checkpoint != null) {
+            saveCheckpoint(checkpoint);
+        } else {
+            pipeline.flush();
+        }
+        System.out.print(pipeline.report());
+    }
+
+    // Commit what the writers hold, then record the windows whose sections are all committed. Windows
+    // with a section in a batch that failed are never reported completed, so they are searched again.
+    private void saveCheckpoint(CrawlCheckpoint checkpoint) {
+        pipeline.flush();
+        List<SearchWindow> completed = checkpoint.takeCompleted();
+        try {
+            checkpoint.save(completed);
+        } catch (IOException e) {
+            System.out.println("Error saving checkpoint: " + e);
+        }
+    }
+
+    // Keep seat counts fresh: poll the volatile windows on an adaptive interval and do a full crawl
+    // whenever the catalog data is due for a refresh. Runs until interrupted.
+    public void poll() throws InterruptedException {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (poller.fullRefreshDue()) {
+                fullCrawl();
+            } else {
+                List<SearchWindow> windows = poller.volatileWindows();
+                System.out.println("Polling " + windows.size() + " windows of " + term);
+                crawl(windows);
+            }
+
+            long wait = poller.finishRound();
+            System.out.println("Next poll of " + term + " in " + (wait / 1000) + "s");
+            Thread.sleep(wait);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Strings that repeat across thousands of classes (subjects, titles, instructors, ...) are kept in
+// lookup tables of (id, value) and the ClassRows table only stores their id, see sql/003_dictionaries.sql.
+//
+// Parsing interns every value so all the classes of a subject share one String, and the writer
+// turns values into ids, only going to the database for a value it hasn't seen yet.
+public class Dictionary {
+    public static final Dictionary SUBJECTS = new Dictionary("Subjects");
+    public static final Dictionary COURSES = new Dictionary("Courses");
+    public static final Dictionary TITLES = new Dictionary("Titles");
+    public static final Dictionary INSTRUCTORS = new Dictionary("Instructors");
+    public static final Dictionary CAMPUSES = new Dictionary("Campuses");
+
+    public static final List<Dictionary> ALL = Arrays.asList(SUBJECTS, COURSES, TITLES, INSTRUCTORS, CAMPUSES);
+
+    private final String table;
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private Dictionary(String table) {
+        this.table = table;
+    }
+
+    public String getTable() { return table; }
+
+    // The shared instance of value, so equal strings from different responses aren't each kept in memory
+    public String intern(String value) {
+        if (value == null) { return null; }
+        String existing = values.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    // Id of value in the lookup table, adding it if it isn't there yet. Null values have no id.
+    //
+    // Ids are committed right away on conn. That is safe to do in the middle of a ClassWriter batch since
+    // batched rows aren't executed until the batch is flushed, and it means an id is never cached for a
+    // row that was rolled back.
+    public Integer id(Connection conn, String value) throws SQLException {
+        if (value == null) { return null; }
+        Integer id = ids.get(value);
+        if (id != null) { return id; }
+
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null) { return id; }
+
+            // INSERT IGNORE so writers on other connections adding the same value don't fail
+            try (PreparedStatement insert = conn.prepareStatement("INSERT IGNORE INTO " + table + " (value) VALUES (?)")) {
+                insert.setString(1, value);
+                insert.executeUpdate();
+            }
+            try (PreparedStatement select = conn.prepareStatement("SELECT id FROM " + table + " WHERE value = ?")) {
+                select.setString(1, value);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) { throw new SQLException("No id for '" + value + "' in " + table); }
+                    id = rs.getInt(1);
+                }
+            }
+            if (!conn.getAutoCommit()) { conn.commit(); }
+
+            ids.put(intern(value), id);
+            return id;
+        }
+    }
+
+    // Cache every id already in the table so a run only adds new values
+    public int load(Connection conn) throws SQLException {
+        int loaded = 0;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, value FROM " + table)) {
+            while (rs.next()) {
+                ids.put(intern(rs.getString(2)), rs.getInt(1));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    // Forget the cached ids, for when the table was dropped and created again
+    void reset() {
+        ids.clear();
+    }
+
+    // Load every dictionary, returns the number of values loaded
+    public static int loadAll(Connection conn) throws SQLException {
+        int loaded = 0;
+        for (Dictionary dictionary : ALL) {
+            loaded += dictionary.load(conn);
+        }
+        return loaded;
+    }
+}
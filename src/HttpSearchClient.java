@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+// Runs class searches directly against the registration system's JSON endpoints instead of
+// driving a browser. The term selection handshake is done once per session and the session
+// cookies are reused for every search after that.
+public class HttpSearchClient implements SearchClient {
+    public static final String BASE_URL = "https://prd-xereg.temple.edu/StudentRegistrationSsb/ssb/";
+
+    private final String termCode;
+    private final RateLimiter rateLimiter;
+    // Cookies are kept per client (not through CookieHandler.setDefault) so several sessions can run at once
+    private CookieManager cookies = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
+    private String uniqueSessionId = null;
+
+    public HttpSearchClient(String termCode, RateLimiter rateLimiter) {
+        this.termCode = termCode;
+        this.rateLimiter = rateLimiter;
+    }
+
+    // Open a session and select the term, the same requests the term selection page makes
+    private void selectTerm() throws IOException {
+        uniqueSessionId = createSessionId();
+        drain(request("GET", BASE_URL + "term/termSelection?mode=search", null));
+
+        String form = "term=" + encode(termCode) +
+                "&studyPath=&studyPathText=&startDatepicker=&endDatepicker=" +
+                "&uniqueSessionId=" + encode(uniqueSessionId);
+        drain(request("POST", BASE_URL + "term/search?mode=search", form));
+    }
+
+    @Override
+    public void warmUp() throws IOException {
+        if (uniqueSessionId == null) { selectTerm(); }
+    }
+
+    // Nothing is kept open between requests, a session that failed is dropped by the pool
+    @Override
+    public boolean isHealthy() {
+        return true;
+    }
+
+    @Override
+    public Reader search(String subject, String startCourseNumber, String endCourseNumber) throws IOException {
+        if (uniqueSessionId == null) { selectTerm(); }
+
+        // The server keeps the previous search's criteria in the session until the form is reset
+        drain(request("POST", BASE_URL + "classSearch/resetDataForm", ""));
+
+        String url = Main.buildSearchUrl(termCode, subject, startCourseNumber, endCourseNumber) +
+                "&uniqueSessionId=" + encode(uniqueSessionId);
+        // Hand back the open response, the crawl pipeline reads all of it into memory before parsing
+        return new InputStreamReader(request("GET", url, null), StandardCharsets.UTF_8);
+    }
+
+    // The terms offered in the term selection dropdown as a JSON array of {code, description}
+    public Reader fetchTerms() throws IOException {
+        String url = BASE_URL + "classSearch/getTerms?searchTerm=&offset=1&max=100";
+        return new InputStreamReader(request("GET", url, null), StandardCharsets.UTF_8);
+    }
+
+    // Drop the session, the next search will do the term selection handshake again
+    @Override
+    public void close() {
+        cookies = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
+        uniqueSessionId = null;
+    }
+
+    private InputStream request(String method, String url, String form) throws IOException {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to send request");
+        }
+
+        URI uri = URI.create(url);
+        HttpURLConnection conn = (HttpURLConnection) uri.toURL().openConnection();
+        conn.setRequestMethod(method);
+        conn.setConnectTimeout(30000);
+        conn.setReadTimeout(60000);
+        conn.setRequestProperty("Accept", "application/json, text/javascript, */*; q=0.01");
+        conn.setRequestProperty("Accept-Encoding", "gzip");
+        conn.setRequestProperty("X-Requested-With", "XMLHttpRequest");
+
+        for (Map.Entry<String, List<String>> header : cookies.get(uri, conn.getRequestProperties()).entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                conn.setRequestProperty(header.getKey(), String.join("; ", header.getValue()));
+            }
+        }
+
+        if (form != null) {
+            byte[] body = form.getBytes(StandardCharsets.UTF_8);
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+            conn.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body);
+            }
+        }
+
+        int status = conn.getResponseCode();
+        cookies.put(uri, conn.getHeaderFields());
+        if (status >= 400) {
+            drain(conn.getErrorStream());
+            throw new IOException("HTTP " + status + " from " + url);
+        }
+
+        InputStream in = conn.getInputStream();
+        if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+            in = new GZIPInputStream(in);
+        }
+        return in;
+    }
+
+    // Read and discard a response so the underlying connection can be kept alive
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) { return; }
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[8192];
+            while (stream.read(buffer) != -1) { }
+        }
+    }
+
+    private static String encode(String value) throws IOException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    // The registration pages identify a search session with 5 random characters followed by a timestamp
+    private static String createSessionId() {
+        String chars = "abcdefghijklmnopqrstuvwxyz0123456789";
+        Random random = new Random();
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            id.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        id.append(System.currentTimeMillis());
+        return id.toString();
+    }
+}
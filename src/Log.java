@@ -0,0 +1,47 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Console logging with a level (LOG_LEVEL=error|warn|info|debug, default info) and sampling for
+// messages that can happen once per class, so a bad response doesn't print thousands of lines.
+public class Log {
+    public enum Level { ERROR, WARN, INFO, DEBUG }
+
+    private static final Level level = parseLevel(System.getenv("LOG_LEVEL"));
+    private static final long sampleEvery = Math.max(1, (long) Main.envNumber("LOG_SAMPLE_EVERY", 1000));
+    private static final Map<String, AtomicLong> sampleCounts = new ConcurrentHashMap<>();
+
+    private static Level parseLevel(String value) {
+        if (value == null || value.isEmpty()) { return Level.INFO; }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown LOG_LEVEL " + value + ", using info");
+            return Level.INFO;
+        }
+    }
+
+    public static boolean enabled(Level messageLevel) {
+        return messageLevel.compareTo(level) <= 0;
+    }
+
+    public static void log(Level messageLevel, String message) {
+        if (enabled(messageLevel)) { System.out.println(message); }
+    }
+
+    public static void error(String message) { log(Level.ERROR, message); }
+
+    public static void warn(String message) { log(Level.WARN, message); }
+
+    public static void info(String message) { log(Level.INFO, message); }
+
+    public static void debug(String message) { log(Level.DEBUG, message); }
+
+    // Log the first message with this key and then one in every LOG_SAMPLE_EVERY, noting how many were skipped
+    public static void sampled(Level messageLevel, String key, String message) {
+        if (!enabled(messageLevel)) { return; }
+        long count = sampleCounts.computeIfAbsent(key, k -> new AtomicLong()).getAndIncrement();
+        if (count % sampleEvery != 0) { return; }
+        System.out.println(count == 0 ? message : message + " (" + (sampleEvery - 1) + " similar skipped)");
+    }
+}
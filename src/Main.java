@@ -1,8 +1,10 @@
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.support.ui.ExpectedCondition;
@@ -10,23 +12,32 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import static java.lang.System.exit;
-import java.io.FileReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
+import com.sun.net.httpserver.HttpServer;
 
 
 public class Main {
+    public static final String baseurl = "https://www.temple.edu/apply/common/cdcheck.asp";
+
     // Return correct WebDriver based on clients operating system
     public static WebDriver createDriver(boolean headless) {
         System.setProperty("webdriver.chrome.driver", "drivers/chromedriver_win32/chromedriver.exe");
-        return new ChromeDriver();
+        // Return from driver.get() as soon as the DOM is ready, callers wait for the elements they need
+        ChromeOptions options = new ChromeOptions();
+        options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        return new ChromeDriver(options);
 
         /*
         String OS = System.getProperty("os.name");
@@ -68,14 +79,25 @@ public class Main {
                     }
                 };
         try {
-            Thread.sleep(1000);
-            WebDriverWait wait = new WebDriverWait(driver, 30);
+            WebDriverWait wait = new WebDriverWait(driver, 30, 100);
             wait.until(expectation);
         } catch (Throwable error) {
             System.out.println("Timeout waiting for Page Load Request to complete.");
         }
     }
 
+    // Wait for the searchResults JSON to arrive, the browser shows it as a single <pre> element
+    // Return null if the response did not arrive before the timeout
+    public static WebElement waitForSearchResults(WebDriver driver, int timeoutTime) {
+        try {
+            WebDriverWait wait = new WebDriverWait(driver, timeoutTime, 100);
+            return wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("pre")));
+        } catch (Exception e) {
+            System.out.println("Timed out waiting for search results.");
+            return null;
+        }
+    }
+
     // Wait for an element based on it's id, then return the element once it is found
     // Return null if element is not found or wait timed out
     public static WebElement waitForElementId(WebDriver driver, String id, int timeoutTime) {
@@ -95,7 +117,7 @@ public class Main {
     }
 
     // Select the term based on user input
-    public static int selectTerm(WebDriver driver, String term) {
+    public static int selectTerm(WebDriver driver, String term, String termCode) {
         try {
             // Wait for term dropdown
             WebElement termInput = waitForElementId(driver, "select2-chosen-1", 30);
@@ -111,7 +133,7 @@ public class Main {
             foundTermButton.click();
              */
 
-            Objects.requireNonNull(waitForElementId(driver, "202036", 10)).click();
+            Objects.requireNonNull(waitForElementId(driver, termCode, 10)).click();
 
             WebElement termContinueButton = waitForElementId(driver, "term-go", 10);
             if (termContinueButton == null) { return -1; }
@@ -125,23 +147,25 @@ public class Main {
     }
 
     // Builds the url that is needed to search for a specific class
-    // Class term is hardcoded '202036'
-    public static void classSearch(WebDriver driver, String subject, String startCourseNumber,
-                                 String endCourseNumber) {
-        System.out.println("Creating class search url");
-        System.out.println("Searching for class");
-        String classUrlSearch = "https://prd-xereg.temple.edu/StudentRegistrationSsb/ssb/searchResults/searchResults?txt_subject=" +
+    public static String buildSearchUrl(String termCode, String subject, String startCourseNumber,
+                                        String endCourseNumber) {
+        return HttpSearchClient.BASE_URL + "searchResults/searchResults?txt_subject=" +
                 subject +
                 "&txt_course_number_range=" +
                 startCourseNumber +
                 "&txt_course_number_range_to=" +
                 endCourseNumber +
-                "&txt_campus=ONL%2CMN%2CAMB%2CCC&txt_term=202036&pageOffset=0&pageMaxSize=10000&sortColumn=subjectDescription&sortDirection=asc";
-        try {
-            TimeUnit.SECONDS.sleep(3);
-        } catch (Exception e) {
-            System.out.println("Sleep in classSearch() failed! : " + e);
-        }
+                "&txt_campus=ONL%2CMN%2CAMB%2CCC&txt_term=" +
+                termCode +
+                "&pageOffset=0&pageMaxSize=10000&sortColumn=subjectDescription&sortDirection=asc";
+    }
+
+    // Load the search results for a specific class in the browser
+    public static void classSearch(WebDriver driver, String termCode, String subject, String startCourseNumber,
+                                 String endCourseNumber) {
+        System.out.println("Creating class search url");
+        System.out.println("Searching for class");
+        String classUrlSearch = buildSearchUrl(termCode, subject, startCourseNumber, endCourseNumber);
         driver.get(classUrlSearch);
         System.out.println("Completed searching for class");
     }
@@ -201,128 +225,86 @@ public class Main {
         return schedule.toString();
     }
 
-    public static void parseClasses(WebDriver driver, String term, Connection conn) {
-        System.out.println("Parsing class");
+    // Pull the fields that are stored for a class out of one element of the searchResults data array
+    public static Section parseSection(String term, JSONObject aClass) {
+        int crn = Integer.parseInt((String) aClass.get("courseReferenceNumber"));
 
-        waitForPageLoaded(driver);
-        JSONParser jsonParser = new JSONParser();
+        // Get faculty object
+        String instructor = "";
         try {
-            // Firefox ONLY - Show raw data instead of JSON format
-            // try { waitForElementId(driver, "rawdata-tab", 10).click(); }
-            // catch (Exception e) {System.out.println("Can not find rawdata-tab button!"); }
-
-            // Extract raw data response
-            String data = driver.findElement(By.cssSelector("pre")).getText();
-            System.out.println(data);
-
-            // FileReader data = new FileReader("C:\\Users\\anon\\Documents\\Projects\\Class-Scheduler\\Temple-Class-Scheduler-Scraper\\ExampleResponse.json");
+            JSONArray aFacultyArr = (JSONArray) aClass.get("faculty");
+            JSONObject aFaculty = (JSONObject) aFacultyArr.get(0);
+            instructor = (String) aFaculty.get("displayName");
+        } catch (Exception ignore) {
+            Log.sampled(Log.Level.DEBUG, "instructor", "Can't find instructor for crn: " + crn);
+        }
 
-            JSONObject obj = (JSONObject) jsonParser.parse(data);
-            JSONArray classes = (JSONArray) obj.get("data");
+        // Get schedule object
+        JSONArray aMeetingArr = (JSONArray) aClass.get("meetingsFaculty");
+        String schedule = parseSchedule(aMeetingArr);
+        byte[] meetingTimes = MeetingTimes.encode(aMeetingArr);
+
+        String campus = null;
+        try { campus = (String) aClass.get("campusDescription"); } catch (Exception ignore) {}
+
+        String subject = (String) aClass.get("subject");
+        String subjectCourse = (String) aClass.get("subjectCourse");
+        int courseNumber = Integer.parseInt(((String) aClass.get("courseNumber")));
+        int creditHours = (int) (long) aClass.get("creditHourLow");
+        String title = (String) aClass.get("courseTitle");
+
+        // Parse capacity info
+        int capacity = (int) (long) aClass.get("maximumEnrollment");
+        int currentCapacity = (int) (long) aClass.get("seatsAvailable");
+        boolean full = false;
+        if ((capacity - currentCapacity) >= capacity) { full = true; }
+
+        if (instructor == null || instructor.equals("")) { instructor = null; }
+        // Assume class is online if no schedule is given
+        if (schedule.equals("")) { schedule = "online"; }
+
+        // Share one copy of the strings repeated across classes instead of keeping every response's copy
+        return new Section(term, crn, Dictionary.SUBJECTS.intern(subject), courseNumber,
+                Dictionary.COURSES.intern(subjectCourse), creditHours, Dictionary.TITLES.intern(title), capacity,
+                currentCapacity, full, Dictionary.INSTRUCTORS.intern(instructor), schedule, meetingTimes,
+                Dictionary.CAMPUSES.intern(campus));
+    }
 
-            System.out.println("JSON object and array inti complete");
+    // Stream the raw searchResults JSON and pass every class in it to sink as it is read.
+    // Returns the parser for the response's counts, or null if the response could not be parsed.
+    public static SearchResultsParser parseClasses(Reader data, String term, SectionSink sink) {
+        long start = System.nanoTime();
+        // Time spent inside the sink (e.g. blocked on a full queue) doesn't count as parsing
+        long[] sinkNanos = {0};
 
-            int crn = -1;
-            for (int i = 0; i < classes.size(); i++) {
+        try (Reader in = data) {
+            SearchResultsParser parser = SearchResultsParser.parse(in, aClass -> {
+                Section section;
                 try {
-                    JSONObject aClass = (JSONObject) classes.get(i);
-
-                    // Get faculty object
-                    String instructor = "";
-                    try {
-                        JSONArray aFacultyArr = (JSONArray) (((JSONObject) classes.get(i)).get("faculty"));
-                        JSONObject aFaculty = (JSONObject)aFacultyArr.get(0);
-                        instructor = (String) aFaculty.get("displayName");
-                    } catch(Exception ignore) {
-                        System.out.println("Can't find instructor for crn: " + crn);
-                    }
-
-                    // Get schedule object
-                    JSONArray aMeetingArr = (JSONArray) ((JSONObject) classes.get(i)).get("meetingsFaculty");
-                    String schedule = parseSchedule(aMeetingArr);
-
-                    String campus = null;
-                    try { campus = (String) aClass.get("campusDescription"); } catch (Exception ignore) {}
-
-                    crn = Integer.parseInt((String)aClass.get("courseReferenceNumber"));
-                    String subject = (String) aClass.get("subject");
-                    String subjectCourse = (String) aClass.get("subjectCourse");
-                    Integer courseNumber =  Integer.parseInt(((String)aClass.get("courseNumber")));
-                    Integer creditHours = (int) (long) aClass.get("creditHourLow");
-                    String title = (String) aClass.get("courseTitle");
-
-                    // Parse capacity info
-                    Integer capacity = (int) (long) aClass.get("maximumEnrollment");
-                    Integer currentCapacity = (int)(long) aClass.get("seatsAvailable");
-                    boolean full = false;
-                    if ((capacity - currentCapacity) >= capacity) { full = true; }
-
-                    if (instructor.equals("")) { instructor = null; }
-                    // Assume class is online if no schedule is given
-                    if (schedule.equals("")) { schedule = "online"; }
-
-                    // Insert to sql
-                    System.out.println("Inserting to sql");
-                    insertClassSQL(term, crn, subject, courseNumber, subjectCourse, creditHours, title, capacity,
-                            currentCapacity, full, instructor, schedule, campus, conn);
-
+                    section = parseSection(term, aClass);
                 } catch (Exception e) {
-                    System.out.println("Error parsing class crn: " + Integer.toString(crn) + "! Error: " + e);
+                    ScrapeMetrics.SECTION_ERRORS.inc();
+                    Log.sampled(Log.Level.WARN, "parseSection", "Error parsing class crn: " +
+                            aClass.get("courseReferenceNumber") + "! Error: " + e);
+                    return;
                 }
 
-            }
-
+                long sinkStart = System.nanoTime();
+                try {
+                    sink.accept(section);
+                } catch (Exception e) {
+                    Log.sampled(Log.Level.WARN, "sink", "Error handling class crn: " + section.getCrn() +
+                            "! Error: " + e);
+                }
+                sinkNanos[0] += System.nanoTime() - sinkStart;
+            });
+            ScrapeMetrics.PARSE_SECONDS.observeNanos(System.nanoTime() - start - sinkNanos[0]);
+            ScrapeMetrics.SECTIONS_PARSED.add(parser.getSectionCount());
+            Log.debug("Parsed " + parser.getSectionCount() + " of " + parser.getTotalCount() + " classes");
+            return parser;
         } catch (Exception e) {
-            System.out.println("Error parsing class: " + e);
-        }
-
-    }
-
-    public static void insertClassSQL(String term, Integer crn, String subject, Integer courseNumber, String subjectCourse,
-                                      Integer creditHours, String title, Integer capacity, Integer currentCapacity,
-                                      boolean capacityFull, String instructor, String schedule, String campus,
-                                      Connection conn) {
-        try {
-            // Avoid duplicate inserts
-            // https://stackoverflow.com/questions/61069118/java-sql-insert-into-table-only-new-entries
-            String query = null;
-            try {
-                // Insert new class if it doesn't exist, and update capacity if class already exists in database
-                query = "INSERT INTO Classes (" +
-                        "crn, subject, courseNumber, subjectCourse, creditHours, title, " +
-                        "capacity, currentCapacity, capacityFull, instructor, schedule, campus) "
-                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
-                        "ON DUPLICATE KEY UPDATE capacity=?, currentCapacity=?, capacityFull=?," +
-                        "instructor=?, schedule=?";
-            } catch(Exception e) {
-                conn.close();
-            }
-
-            PreparedStatement preparedStmt = conn.prepareStatement(query);
-            // Insert New
-            preparedStmt.setInt(1, crn);
-            preparedStmt.setString(2, subject);
-            preparedStmt.setInt(3, courseNumber);
-            preparedStmt.setString(4, subjectCourse);
-            preparedStmt.setInt(5, creditHours);
-            preparedStmt.setString(6, title);
-            preparedStmt.setInt(7, capacity);
-            preparedStmt.setInt(8, currentCapacity);
-            preparedStmt.setBoolean(9, capacityFull);
-            preparedStmt.setString(10, instructor);
-            preparedStmt.setString(11, schedule);
-            preparedStmt.setString(12, campus);
-
-            // Update
-            preparedStmt.setInt(13, capacity);
-            preparedStmt.setInt(14, currentCapacity);
-            preparedStmt.setBoolean(15, capacityFull);
-            preparedStmt.setString(16, instructor);
-            preparedStmt.setString(17, schedule);
-
-            preparedStmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+            Log.error("Error parsing class: " + e);
+            return null;
         }
     }
 
@@ -354,81 +336,238 @@ public class Main {
 
     }
 
-    // args = [Subject, StartCourseNumber, EndCourseNumber]
-    // If no EndCourseNumber specified then only search for specific course number
+    // Search through the registration system's JSON endpoints by default, set SCRAPER_MODE=browser
+    // to fall back to driving a browser
+    public static SearchClient createSearchClient(Term term, RateLimiter rateLimiter) {
+        if ("browser".equalsIgnoreCase(System.getenv("SCRAPER_MODE"))) {
+            return new BrowserSearchClient(term, rateLimiter, false);
+        }
+        return new HttpSearchClient(term.getCode(), rateLimiter);
+    }
+
+    // Directory the per-term files built at the end of a run are written to
+    public static File exportDir() {
+        String dir = System.getenv("EXPORT_DIR");
+        return new File(dir == null || dir.isEmpty() ? "export" : dir);
+    }
+
+    // Directory for what a run remembers for the next one
+    public static File stateDir() {
+        String dir = System.getenv("STATE_DIR");
+        return new File(dir == null || dir.isEmpty() ? "state" : dir);
+    }
+
+    // Read a numeric setting from the environment, falling back to a default if unset or invalid
+    public static double envNumber(String name, double defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) { return defaultValue; }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // Run every archived response through the parse and insert code, oldest first
+    public static void replay(ResponseArchive archive, Connection conn, ClassWriter writer) {
+        if (archive == null) {
+            System.out.println("Set ARCHIVE_DIR to replay archived responses");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            // ClassRows is partitioned by term, a database rebuilt from the archive has no partitions for its terms yet
+            Set<String> partitioned = new HashSet<>();
+            int replayed = archive.replay((entry, data) -> {
+                if (partitioned.add(entry.getTerm())) { ClassWriter.ensureTermPartition(conn, entry.getTerm()); }
+                parseClasses(data, entry.getTerm(), writer::write);
+            });
+            writer.close();
+            System.out.println("Replayed " + replayed + " responses in " + (System.currentTimeMillis() - start) + "ms");
+            System.out.print(ScrapeMetrics.summary());
+        } catch (Exception e) {
+            System.out.println("Error replaying archive: " + e);
+        }
+    }
+
+    // args = [Subject]
+    // If no Subject specified then every subject is searched
     public static void main (String[] args) {
-        String url = "jdbc:mysql://" + System.getenv("AWS_URL") + "/class_scheduler";
+        // BULK_LOAD=auto (default) loads terms that aren't in the database yet with LOAD DATA LOCAL INFILE,
+        // always uses it for every term and never turns it off
+        String bulkMode = System.getenv("BULK_LOAD") == null ? "auto" : System.getenv("BULK_LOAD").toLowerCase();
+
+        // rewriteBatchedStatements lets Connector/J send each batch of upserts as one multi-row INSERT, and
+        // usePacketBufferPool has each connection reuse its packet buffers instead of allocating one per packet.
+        // The writer connections share one parsed copy of each prepared statement through PerVmParseInfoCacheFactory.
+        // Local infile is only allowed when bulk loading can be used, it lets the server ask for local files.
+        String url = "jdbc:mysql://" + System.getenv("AWS_URL") + "/class_scheduler?rewriteBatchedStatements=true" +
+                "&usePacketBufferPool=true" +
+                "&cachePrepStmts=true&parseInfoCacheFactory=com.mysql.cj.PerVmParseInfoCacheFactory" +
+                ("never".equals(bulkMode) ? "" : "&allowLoadLocalInfile=true");
+        // Each database writer thread gets its own connection, they all share one snapshot
+        int dbWriters = Math.max(1, (int) envNumber("DB_WRITERS", 1));
+        List<Connection> connections = new ArrayList<>();
+        List<ClassWriter> writers = new ArrayList<>();
         Connection conn = null;
+        // Only sections that changed since they were last written get sent to the database
+        SectionSnapshot snapshot = new SectionSnapshot();
         try {
-            conn = DriverManager.getConnection(
-                    url, System.getenv("AWS_USER"), System.getenv("AWS_PASS"));
+            for (int i = 0; i < dbWriters; i++) {
+                connections.add(DriverManager.getConnection(
+                        url, System.getenv("AWS_USER"), System.getenv("AWS_PASS")));
+            }
+            conn = connections.get(0);
+            System.out.println("Loaded " + snapshot.load(conn) + " classes from the database");
+            System.out.println("Loaded " + Dictionary.loadAll(conn) + " dictionary values from the database");
+            for (Connection connection : connections) {
+                writers.add(new ClassWriter(connection, (int) envNumber("DB_BATCH_SIZE", 500), snapshot));
+            }
         } catch (Exception e) {
             System.out.println("Error connecting to database: " + e);
+            exit(-1);
         }
 
-        String baseurl = "https://www.temple.edu/apply/common/cdcheck.asp";
-
-        // DEFAULT VALUES
-        String term = "2020 Fall";
         String subject;
-        String startCourseNumber;
-        String endCourseNumber;
 
-        int testing = 1;
-        if (testing == 0) {
-            parseClasses(null, term, conn);
-            exit(-1);
-        }
+        // Raw responses are archived when ARCHIVE_DIR is set
+        String archiveDir = System.getenv("ARCHIVE_DIR");
+        ResponseArchive archive = archiveDir == null || archiveDir.isEmpty() ? null :
+                new ResponseArchive(new File(archiveDir), (long) envNumber("ARCHIVE_SEGMENT_MB", 256) * 1024 * 1024);
 
-        WebDriver driver = createDriver(false);
-        driver.get("https://prd-xereg.temple.edu/StudentRegistrationSsb/ssb/classSearch/classSearch");
+        // Rebuild the database from the archive instead of searching
+        if ("true".equalsIgnoreCase(System.getenv("SCRAPER_REPLAY"))) {
+            replay(archive, conn, writers.get(0));
+            exit(0);
+        }
 
         // Assign values based on arguments, or lack there of (default values for testing)
         if (args.length == 0) {
             // No arguments specified (testing)
             subject = "";
-            // Default course numbers 0-4999 includes all undergrad classes (5000+ are grad classes)
-            startCourseNumber = "1000";
-            endCourseNumber = "1999";
         } else {
             // Use arguments specified
             subject = args[0];
-            startCourseNumber = args[1];
-            endCourseNumber = args[2];
         }
 
-        for (int i = 800; i < 4000; i += 100) {
+        // Prometheus can scrape the run's metrics from http://host:METRICS_PORT/metrics
+        HttpServer metricsServer = null;
+        int metricsPort = (int) envNumber("METRICS_PORT", 0);
+        if (metricsPort > 0) {
+            try {
+                metricsServer = ScrapeMetrics.serve(metricsPort);
+                System.out.println("Serving metrics on port " + metricsPort);
+            } catch (IOException e) {
+                System.out.println("Error starting metrics endpoint: " + e);
+            }
+        }
+
+        // Every session shares one rate limiter so more threads never means more load on the registrar
+        int threads = (int) envNumber("SCRAPER_THREADS", 4);
+        RateLimiter rateLimiter = new RateLimiter(envNumber("SCRAPER_RPS", 2), threads);
+
+        // Terms to keep fresh, e.g. TERMS=202036,202103 for the current and upcoming term
+        List<Term> terms = TermCatalog.fetch(new HttpSearchClient(null, rateLimiter)).select(System.getenv("TERMS"));
+
+        // The stages are shared by every term, the sessions are not since a session is tied to its term.
+        // Searching, parsing and writing each get their own threads with bounded queues between them.
+        CrawlPipeline pipeline = new CrawlPipeline(threads, (int) envNumber("PARSE_THREADS", 2), writers,
+                (int) envNumber("PIPELINE_RESPONSE_QUEUE", 8), (int) envNumber("PIPELINE_SECTION_QUEUE", 5000));
+        List<SessionPool> sessionPools = new ArrayList<>();
+        List<Crawler> crawlers = new ArrayList<>();
+        for (Term term : terms) {
             try {
-                startCourseNumber = Integer.toString(i);
-                endCourseNumber = Integer.toString(i+100);
+                ClassWriter.ensureTermPartition(conn, term.getCode());
+            } catch (SQLException e) {
+                System.out.println("Error adding partition for term " + term + ": " + e);
+            }
 
-                while(startCourseNumber.length() < 4) {
-                    startCourseNumber = "0" + startCourseNumber;
+            if ("always".equals(bulkMode) || ("auto".equals(bulkMode) && snapshot.size(term.getCode()) == 0)) {
+                System.out.println("Bulk loading " + term);
+                for (ClassWriter writer : writers) {
+                    writer.bulkLoad(term.getCode(), (int) envNumber("BULK_LOAD_ROWS", 20000));
                 }
+            }
 
-                while(endCourseNumber.length() < 4) {
-                    endCourseNumber = "0" + endCourseNumber;
+            SessionPool sessions = new SessionPool(() -> createSearchClient(term, rateLimiter), threads,
+                    (int) envNumber("SESSION_MAX_USES", 50));
+            sessions.warmUp();
+            sessionPools.add(sessions);
+
+            // Window sizes learned by earlier runs of this term
+            File windowFile = new File(stateDir(),
+                    "windows-" + term.getCode() + (subject.isEmpty() ? "" : "-" + subject) + ".txt");
+            WindowPlanner planner = new WindowPlanner(windowFile, subject,
+                    (int) envNumber("WINDOW_TARGET_SECTIONS", 300));
+
+            // Thresholds that decide which sections the seat poller keeps re-searching
+            SeatPoller poller = new SeatPoller(
+                    (int) envNumber("POLL_NEAR_FULL_SEATS", 5),
+                    (long) (envNumber("POLL_RECENT_CHANGE_MINUTES", 30) * 60 * 1000),
+                    (long) (envNumber("POLL_MIN_SECONDS", 30) * 1000),
+                    (long) (envNumber("POLL_MAX_SECONDS", 600) * 1000),
+                    (long) (envNumber("FULL_REFRESH_HOURS", 24) * 60 * 60 * 1000));
+
+            // Windows already finished by a crawl of this term that died part way
+            File checkpointFile = new File(stateDir(),
+                    "checkpoint-" + term.getCode() + (subject.isEmpty() ? "" : "-" + subject) + ".txt");
+            CrawlCheckpoint checkpoint = new CrawlCheckpoint(checkpointFile, subject,
+                    (long) (envNumber("CHECKPOINT_MAX_AGE_MINUTES", 360) * 60 * 1000));
+
+            // The writers are shared by every term and batch their sections together
+            crawlers.add(new Crawler(term, pipeline, sessions, planner, poller, archive, checkpoint,
+                    (long) (envNumber("CHECKPOINT_SECONDS", 30) * 1000)));
+        }
+
+        // Run every term at the same time, their windows interleave on the shared workers
+        boolean poll = "true".equalsIgnoreCase(System.getenv("SCRAPER_POLL"));
+        ExecutorService termRunner = Executors.newFixedThreadPool(crawlers.size());
+        for (Crawler crawler : crawlers) {
+            termRunner.submit(() -> {
+                try {
+                    if (poll) {
+                        crawler.poll();
+                    } else {
+                        crawler.fullCrawl();
+                    }
+                } catch (InterruptedException e) {
+                    System.out.println("Crawl interrupted!");
                 }
+            });
+        }
+        termRunner.shutdown();
+        try {
+            termRunner.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            System.out.println("Crawl interrupted!");
+        }
 
-                System.out.println(startCourseNumber + " : " + endCourseNumber);
-
-                driver.get(baseurl);
-                selectTerm(driver, term);
-                classSearch(driver, subject, startCourseNumber, endCourseNumber);
-                parseClasses(driver, term, conn);
-                Thread.sleep(15000);
-            } catch (Exception e) {
-                System.out.println("Error executing program!");
-                System.out.println(e);
-                driver.close();
-            }
+        pipeline.close();
+        for (SessionPool sessions : sessionPools) {
+            sessions.close();
         }
 
-        driver.close();
+        if (archive != null) {
+            try {
+                archive.close();
+            } catch (IOException e) { System.out.println("Error closing response archive: " + e); }
+        }
 
-        try {
-            conn.close(); // Close SQL connection
-        } catch (Exception e) { System.out.println("Error close SQL connection: " + e); }
+        for (ClassWriter writer : writers) {
+            try {
+                writer.close(); // Flush the last batch
+            } catch (Exception e) { System.out.println("Error writing last batch: " + e); }
+        }
+
+        for (Connection connection : connections) {
+            try {
+                connection.close(); // Close SQL connection
+            } catch (Exception e) { System.out.println("Error close SQL connection: " + e); }
+        }
+
+        System.out.print(ScrapeMetrics.summary());
+        if (metricsServer != null) { metricsServer.stop(0); }
 
 
     }
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+// Packed form of a class's meeting times, stored next to the schedule string so consumers don't
+// have to parse text to compare schedules.
+//
+// Every meeting takes 5 bytes: a weekday bitmask (bit 0 = Monday ... bit 6 = Sunday) followed by
+// the start and end time as big endian minutes since midnight. A class with no scheduled meeting
+// times (online) is an empty array.
+public class MeetingTimes {
+    public static final int BYTES_PER_MEETING = 5;
+
+    private static final String[] DAY_KEYS = {
+            "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"
+    };
+    private static final String[] DAY_NAMES = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+
+    private MeetingTimes() { }
+
+    // Encode the meetingsFaculty array of a class
+    public static byte[] encode(JSONArray meetingArray) {
+        if (meetingArray == null) { return new byte[0]; }
+
+        byte[] packed = new byte[meetingArray.size() * BYTES_PER_MEETING];
+        int length = 0;
+        for (Object o : meetingArray) {
+            JSONObject meeting = (JSONObject) ((JSONObject) o).get("meetingTime");
+            if (meeting == null) { continue; }
+
+            int days = 0;
+            for (int day = 0; day < DAY_KEYS.length; day++) {
+                if (Boolean.TRUE.equals(meeting.get(DAY_KEYS[day]))) { days |= 1 << day; }
+            }
+            int start = toMinutes((String) meeting.get("beginTime"));
+            int end = toMinutes((String) meeting.get("endTime"));
+            // Meetings without days or times (online, TBA) have nothing to conflict with
+            if (days == 0 || start < 0 || end < 0) { continue; }
+
+            packed[length] = (byte) days;
+            packed[length + 1] = (byte) (start >>> 8);
+            packed[length + 2] = (byte) start;
+            packed[length + 3] = (byte) (end >>> 8);
+            packed[length + 4] = (byte) end;
+            length += BYTES_PER_MEETING;
+        }
+        return length == packed.length ? packed : Arrays.copyOf(packed, length);
+    }
+
+    // Times are sent as 24hr HHMM strings, -1 if missing or malformed
+    static int toMinutes(String time) {
+        if (time == null || time.length() != 4) { return -1; }
+        try {
+            int value = Integer.parseInt(time);
+            return (value / 100) * 60 + value % 100;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static int count(byte[] packed) {
+        return packed.length / BYTES_PER_MEETING;
+    }
+
+    // Weekday bitmask of the i-th meeting, bit 0 = Monday
+    public static int days(byte[] packed, int i) {
+        return packed[i * BYTES_PER_MEETING] & 0x7f;
+    }
+
+    // Start of the i-th meeting in minutes since midnight
+    public static int start(byte[] packed, int i) {
+        int offset = i * BYTES_PER_MEETING;
+        return ((packed[offset + 1] & 0xff) << 8) | (packed[offset + 2] & 0xff);
+    }
+
+    // End of the i-th meeting in minutes since midnight
+    public static int end(byte[] packed, int i) {
+        int offset = i * BYTES_PER_MEETING;
+        return ((packed[offset + 3] & 0xff) << 8) | (packed[offset + 4] & 0xff);
+    }
+
+    // Two classes conflict if any pair of meetings share a day and their times overlap
+    public static boolean conflicts(byte[] a, byte[] b) {
+        for (int i = 0; i < count(a); i++) {
+            for (int j = 0; j < count(b); j++) {
+                if ((days(a, i) & days(b, j)) != 0 && start(a, i) < end(b, j) && start(b, j) < end(a, i)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Decode to a readable form, e.g. "Mon,Wed 09:00-09:50; Fri 13:00-13:50"
+    public static String toString(byte[] packed) {
+        if (packed == null || packed.length == 0) { return "Online"; }
+
+        StringBuilder decoded = new StringBuilder();
+        for (int i = 0; i < count(packed); i++) {
+            if (i > 0) { decoded.append("; "); }
+            boolean first = true;
+            for (int day = 0; day < DAY_NAMES.length; day++) {
+                if ((days(packed, i) & (1 << day)) == 0) { continue; }
+                if (!first) { decoded.append(','); }
+                decoded.append(DAY_NAMES[day]);
+                first = false;
+            }
+            decoded.append(' ').append(formatTime(start(packed, i)))
+                    .append('-').append(formatTime(end(packed, i)));
+        }
+        return decoded.toString();
+    }
+
+    private static String formatTime(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+}
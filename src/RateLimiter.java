@@ -0,0 +1,34 @@
+import java.util.concurrent.TimeUnit;
+
+// Token bucket shared by every session so the whole crawl stays under a requests-per-second cap
+public class RateLimiter {
+    private final double permitsPerSecond;
+    private final double maxPermits;
+    private double permits;
+    private long lastRefill = System.nanoTime();
+
+    // permitsPerSecond <= 0 disables limiting, burst is how many requests may go out back to back
+    public RateLimiter(double permitsPerSecond, double burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = Math.max(1, burst);
+        this.permits = this.maxPermits;
+    }
+
+    // Block until the next request is allowed
+    public void acquire() throws InterruptedException {
+        if (permitsPerSecond <= 0) { return; }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            permits = Math.min(maxPermits, permits + (now - lastRefill) / 1e9 * permitsPerSecond);
+            lastRefill = now;
+
+            // Take the permit right away, callers that push the bucket negative wait out the debt
+            permits -= 1;
+            if (permits >= 0) { return; }
+            waitNanos = (long) (-permits / permitsPerSecond * 1e9);
+        }
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+}
@@ -0,0 +1,220 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Append-only archive of every raw searchResults response, so a crawl can be replayed through the
+// parse and insert code without the registration system (benchmarks, rebuilding the database).
+//
+// Responses are written to segment files (segment-00000.dat, ...) that roll over at maxSegmentBytes.
+// Every record is indexed by its term, window and timestamp:
+//   int    MAGIC
+//   long   time the response was received (millis)
+//   UTF    term code
+//   UTF    subject
+//   int    start course number
+//   int    end course number
+//   int    payload length
+//   byte[] payload, the response as deflate compressed UTF-8
+public class ResponseArchive {
+    static final int MAGIC = 0x52535031; // "RSP1"
+
+    private final File dir;
+    private final long maxSegmentBytes;
+    private DataOutputStream out = null;
+    private File segment = null;
+
+    // Where a response is stored, read from the record headers
+    public static class Entry {
+        private final long payloadOffset;
+        private final long timestamp;
+        private final String term;
+        private final SearchWindow window;
+        private final int payloadLength;
+
+        Entry(long payloadOffset, long timestamp, String term, SearchWindow window, int payloadLength) {
+            this.payloadOffset = payloadOffset;
+            this.timestamp = timestamp;
+            this.term = term;
+            this.window = window;
+            this.payloadLength = payloadLength;
+        }
+
+        public long getTimestamp() { return timestamp; }
+
+        public String getTerm() { return term; }
+
+        public SearchWindow getWindow() { return window; }
+
+        public int getPayloadLength() { return payloadLength; }
+    }
+
+    public interface ResponseHandler {
+        void onResponse(Entry entry, Reader data) throws Exception;
+    }
+
+    public ResponseArchive(File dir, long maxSegmentBytes) {
+        this.dir = dir;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    // Archive a response that is already deflate compressed
+    public synchronized void append(String term, SearchWindow window, long timestamp, byte[] payload)
+            throws IOException {
+        if (out == null || segment.length() >= maxSegmentBytes) {
+            openSegment();
+        }
+        out.writeInt(MAGIC);
+        out.writeLong(timestamp);
+        out.writeUTF(term);
+        out.writeUTF(window.getSubject());
+        out.writeInt(window.getStart());
+        out.writeInt(window.getEnd());
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    // Continue the last segment if it has room, otherwise start a new one
+    private void openSegment() throws IOException {
+        if (out != null) { out.close(); }
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Can't create directory " + dir);
+        }
+
+        File[] segments = segments();
+        File last = segments.length == 0 ? null : segments[segments.length - 1];
+        if (last != null && last.length() < maxSegmentBytes && last != segment) {
+            // Cut off a record left half written by a crash so new records start at a record boundary
+            long end = scan(last, new ArrayList<>());
+            if (end < last.length()) {
+                try (RandomAccessFile file = new RandomAccessFile(last, "rw")) {
+                    file.setLength(end);
+                }
+            }
+            segment = last;
+        } else {
+            segment = new File(dir, String.format("segment-%05d.dat", segments.length));
+        }
+        out = new DataOutputStream(new FileOutputStream(segment, true));
+    }
+
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private File[] segments() {
+        File[] segments = dir.listFiles((d, name) -> name.startsWith("segment-") && name.endsWith(".dat"));
+        if (segments == null) { return new File[0]; }
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    // Index of every archived response, oldest first
+    public List<Entry> entries() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (File file : segments()) {
+            scan(file, entries);
+        }
+        return entries;
+    }
+
+    // Read the record headers of a segment, returns where the last complete record ends
+    private static long scan(File file, List<Entry> entries) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long end = 0;
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+            while (buffer.remaining() > 0) {
+                try {
+                    if (in.readInt() != MAGIC) { break; }
+                    long timestamp = in.readLong();
+                    String term = in.readUTF();
+                    String subject = in.readUTF();
+                    SearchWindow window = new SearchWindow(subject, in.readInt(), in.readInt());
+                    int length = in.readInt();
+                    if (length < 0 || length > buffer.remaining()) { break; }
+                    entries.add(new Entry(buffer.position(), timestamp, term, window, length));
+                    buffer.position(buffer.position() + length);
+                    end = buffer.position();
+                } catch (IOException e) {
+                    // Record header cut short
+                    break;
+                }
+            }
+            return end;
+        }
+    }
+
+    // Feed every archived response to handler, oldest first. Segments are memory mapped and each
+    // payload is inflated straight out of the mapping while it is parsed.
+    public int replay(ResponseHandler handler) throws Exception {
+        int replayed = 0;
+        for (File file : segments()) {
+            List<Entry> entries = new ArrayList<>();
+            scan(file, entries);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (Entry entry : entries) {
+                    ByteBuffer payload = buffer.duplicate();
+                    payload.position((int) entry.payloadOffset);
+                    payload.limit(payload.position() + entry.payloadLength);
+                    Inflater inflater = new Inflater();
+                    try (Reader data = new InputStreamReader(
+                            new InflaterInputStream(new ByteBufferInputStream(payload), inflater, 65536),
+                            StandardCharsets.UTF_8)) {
+                        handler.onResponse(entry, data);
+                    } finally {
+                        inflater.end();
+                    }
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    // InputStream over a ByteBuffer, reading advances the buffer's position
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) { return -1; }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpServer;
+
+// Counters and histograms for a scrape run. They can be scraped by Prometheus from /metrics when
+// METRICS_PORT is set, and a summary of them is printed at the end of every run.
+public class ScrapeMetrics {
+    private static final List<Counter> counters = new ArrayList<>();
+    private static final List<Histogram> histograms = new ArrayList<>();
+
+    private static final double[] SECONDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    private static final double[] BYTES = {1024, 4096, 16384, 65536, 262144, 1048576, 4194304, 16777216};
+
+    public static final Histogram FETCH_SECONDS = histogram("scraper_fetch_seconds",
+            "Time to search a window and download the response", SECONDS);
+    public static final Histogram RESPONSE_BYTES = histogram("scraper_response_bytes",
+            "Size of the searchResults JSON of a window", BYTES);
+    public static final Histogram PARSE_SECONDS = histogram("scraper_parse_seconds",
+            "Time to parse the response of a window, not counting time spent handing off sections", SECONDS);
+    public static final Histogram DB_BATCH_SECONDS = histogram("scraper_db_batch_seconds",
+            "Time to execute and commit a batch of upserts", SECONDS);
+    public static final Histogram BULK_LOAD_SECONDS = histogram("scraper_bulk_load_seconds",
+            "Time to bulk load and merge a batch of classes", SECONDS);
+    public static final Counter FETCH_ERRORS = counter("scraper_fetch_errors_total",
+            "Window searches that failed");
+    public static final Counter SECTIONS_PARSED = counter("scraper_sections_parsed_total",
+            "Classes parsed from search responses");
+    public static final Counter SECTION_ERRORS = counter("scraper_section_errors_total",
+            "Classes that could not be parsed");
+    public static final Counter ROWS_UPSERTED = counter("scraper_rows_upserted_total",
+            "Classes written to the database");
+    public static final Counter ROWS_UNCHANGED = counter("scraper_rows_unchanged_total",
+            "Classes skipped because they were unchanged since they were last written");
+
+    public static class Counter {
+        private final String name;
+        private final String help;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        public void inc() { value.increment(); }
+
+        public void add(long amount) { value.add(amount); }
+
+        public long get() { return value.sum(); }
+    }
+
+    // Fixed buckets so observing is just two adds, the same layout Prometheus histograms use
+    public static class Histogram {
+        private final String name;
+        private final String help;
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(String name, String help, double[] bounds) {
+            this.name = name;
+            this.help = help;
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) { i++; }
+            buckets[i].increment();
+            count.increment();
+            sum.add(value);
+        }
+
+        public void observeNanos(long nanos) {
+            observe(nanos / 1e9);
+        }
+
+        public long getCount() { return count.sum(); }
+
+        public double getSum() { return sum.sum(); }
+
+        // Upper bound of the bucket holding the q-th quantile, infinity if it is past the last bucket
+        public double quantile(double q) {
+            long total = count.sum();
+            if (total == 0) { return 0; }
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) { return bounds[i]; }
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private static Counter counter(String name, String help) {
+        Counter counter = new Counter(name, help);
+        counters.add(counter);
+        return counter;
+    }
+
+    private static Histogram histogram(String name, String help, double[] bounds) {
+        Histogram histogram = new Histogram(name, help, bounds);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    // Every metric in the Prometheus text exposition format
+    public static String prometheus() {
+        StringBuilder out = new StringBuilder();
+        for (Counter counter : counters) {
+            out.append("# HELP ").append(counter.name).append(' ').append(counter.help).append('\n');
+            out.append("# TYPE ").append(counter.name).append(" counter\n");
+            out.append(counter.name).append(' ').append(counter.get()).append('\n');
+        }
+        for (Histogram histogram : histograms) {
+            out.append("# HELP ").append(histogram.name).append(' ').append(histogram.help).append('\n');
+            out.append("# TYPE ").append(histogram.name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = 0; i < histogram.bounds.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                out.append(histogram.name).append("_bucket{le=\"").append(histogram.bounds[i]).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            cumulative += histogram.buckets[histogram.bounds.length].sum();
+            out.append(histogram.name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+            out.append(histogram.name).append("_sum ").append(histogram.getSum()).append('\n');
+            out.append(histogram.name).append("_count ").append(histogram.getCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    // Human readable totals and latency percentiles for the end of a run
+    public static String summary() {
+        StringBuilder out = new StringBuilder("Run summary\n");
+        for (Counter counter : counters) {
+            out.append(String.format("  %-32s %d%n", counter.name, counter.get()));
+        }
+        for (Histogram histogram : histograms) {
+            long count = histogram.getCount();
+            out.append(String.format("  %-32s count=%d avg=%.4g p50<=%s p99<=%s%n", histogram.name, count,
+                    count == 0 ? 0 : histogram.getSum() / count, histogram.quantile(0.5), histogram.quantile(0.99)));
+        }
+        return out.toString();
+    }
+
+    // Serve the metrics at http://host:port/metrics until the returned server is stopped
+    public static HttpServer serve(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = prometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
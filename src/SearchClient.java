@@ -0,0 +1,17 @@
+import java.io.Reader;
+
+// A session against the registration system that can run class searches
+public interface SearchClient {
+    // Run a class search over a course number range and return a reader over the raw searchResults JSON.
+    // The caller is responsible for closing the reader.
+    Reader search(String subject, String startCourseNumber, String endCourseNumber) throws Exception;
+
+    // Get the session ready to search (select the term), so the first search doesn't pay for it
+    void warmUp() throws Exception;
+
+    // Check the session can still be used
+    boolean isHealthy();
+
+    // Release the session (browser window, cookies, ...)
+    void close();
+}
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+// Pull style parser for searchResults responses. Only the section currently being read from the
+// "data" array is kept in memory, every other value in the response is skipped as it streams by,
+// so memory use stays the same no matter how many sections the page holds.
+public class SearchResultsParser implements ContentHandler {
+    public interface SectionHandler {
+        void onSection(JSONObject section);
+    }
+
+    private final SectionHandler handler;
+
+    // Containers of the section being built, the section object itself is at the bottom
+    private final Deque<Object> building = new ArrayDeque<>();
+    private final Deque<String> keys = new ArrayDeque<>();
+    private int depth = 0;
+    private String topLevelKey = null;
+    private boolean inData = false;
+
+    private long totalCount = -1;
+    private int sectionCount = 0;
+
+    private SearchResultsParser(SectionHandler handler) {
+        this.handler = handler;
+    }
+
+    // Stream the response, calling handler once per section. Returns the parser so the caller can
+    // read the response's totalCount and how many sections were seen.
+    public static SearchResultsParser parse(Reader data, SectionHandler handler) throws IOException, ParseException {
+        SearchResultsParser parser = new SearchResultsParser(handler);
+        new JSONParser().parse(data, parser);
+        return parser;
+    }
+
+    // Total number of sections the server matched, -1 if the response did not say
+    public long getTotalCount() { return totalCount; }
+
+    public int getSectionCount() { return sectionCount; }
+
+    @Override
+    public void startJSON() { }
+
+    @Override
+    public void endJSON() { }
+
+    @Override
+    public boolean startObject() {
+        depth++;
+        // Each object directly inside the data array is a section
+        if (!building.isEmpty() || (inData && depth == 3)) {
+            push(new JSONObject());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean endObject() {
+        if (!building.isEmpty()) {
+            Object finished = building.pop();
+            if (building.isEmpty()) {
+                sectionCount++;
+                handler.onSection((JSONObject) finished);
+            }
+        }
+        depth--;
+        return true;
+    }
+
+    @Override
+    public boolean startObjectEntry(String key) {
+        if (!building.isEmpty()) {
+            keys.push(key);
+        } else if (depth == 1) {
+            topLevelKey = key;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean endObjectEntry() {
+        if (!building.isEmpty()) {
+            keys.pop();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean startArray() {
+        depth++;
+        if (!building.isEmpty()) {
+            push(new JSONArray());
+        } else if (depth == 2 && "data".equals(topLevelKey)) {
+            inData = true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean endArray() {
+        if (!building.isEmpty()) {
+            building.pop();
+        } else if (depth == 2) {
+            inData = false;
+        }
+        depth--;
+        return true;
+    }
+
+    @Override
+    public boolean primitive(Object value) {
+        if (!building.isEmpty()) {
+            add(value);
+        } else if (depth == 1 && "totalCount".equals(topLevelKey) && value instanceof Number) {
+            totalCount = ((Number) value).longValue();
+        }
+        return true;
+    }
+
+    private void push(Object container) {
+        if (!building.isEmpty()) {
+            add(container);
+        }
+        building.push(container);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(Object value) {
+        Object parent = building.peek();
+        if (parent instanceof JSONObject) {
+            ((JSONObject) parent).put(keys.peek(), value);
+        } else {
+            ((JSONArray) parent).add(value);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// A subject and course number range to search, the unit of work for a crawl
+public class SearchWindow {
+    private final String subject;
+    private final int startCourseNumber;
+    private final int endCourseNumber;
+
+    public SearchWindow(String subject, int startCourseNumber, int endCourseNumber) {
+        this.subject = subject;
+        this.startCourseNumber = startCourseNumber;
+        this.endCourseNumber = endCourseNumber;
+    }
+
+    // Split [start, end) into windows of the given size
+    public static List<SearchWindow> split(String subject, int start, int end, int size) {
+        List<SearchWindow> windows = new ArrayList<>();
+        for (int i = start; i < end; i += size) {
+            windows.add(new SearchWindow(subject, i, i + size));
+        }
+        return windows;
+    }
+
+    public String getSubject() { return subject; }
+
+    public int getStart() { return startCourseNumber; }
+
+    public int getEnd() { return endCourseNumber; }
+
+    // Course numbers are always 4 digits in the search form
+    public String getStartCourseNumber() { return pad(startCourseNumber); }
+
+    public String getEndCourseNumber() { return pad(endCourseNumber); }
+
+    private static String pad(int courseNumber) {
+        String padded = Integer.toString(courseNumber);
+        while (padded.length() < 4) {
+            padded = "0" + padded;
+        }
+        return padded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof SearchWindow)) { return false; }
+        SearchWindow other = (SearchWindow) o;
+        return startCourseNumber == other.startCourseNumber && endCourseNumber == other.endCourseNumber &&
+                subject.equals(other.subject);
+    }
+
+    @Override
+    public int hashCode() {
+        return (subject.hashCode() * 31 + startCourseNumber) * 31 + endCourseNumber;
+    }
+
+    @Override
+    public String toString() {
+        return (subject.isEmpty() ? "" : subject + " ") + getStartCourseNumber() + " : " + getEndCourseNumber();
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decides what to re-search between full crawls while registration is open. Seat counts are the
+// only thing that changes often, and mostly on sections that are close to full or that changed
+// recently, so only the windows holding those sections are searched again. The wait between polls
+// halves while seats are moving and doubles while they are not.
+public class SeatPoller {
+    private final int nearFullSeats;
+    private final long recentChangeMillis;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final long fullRefreshMillis;
+
+    private final Map<Integer, Tracked> sections = new ConcurrentHashMap<>();
+    private final AtomicInteger changes = new AtomicInteger();
+    private long intervalMillis;
+    private long lastFullRefresh = 0;
+
+    // Last seat count seen for a section and the window it was found in
+    private static class Tracked {
+        final SearchWindow window;
+        final int seats;
+        final long lastChanged;
+
+        Tracked(SearchWindow window, int seats, long lastChanged) {
+            this.window = window;
+            this.seats = seats;
+            this.lastChanged = lastChanged;
+        }
+    }
+
+    public SeatPoller(int nearFullSeats, long recentChangeMillis, long minIntervalMillis, long maxIntervalMillis,
+                      long fullRefreshMillis) {
+        this.nearFullSeats = nearFullSeats;
+        this.recentChangeMillis = recentChangeMillis;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = Math.max(minIntervalMillis, maxIntervalMillis);
+        this.fullRefreshMillis = fullRefreshMillis;
+        this.intervalMillis = minIntervalMillis;
+    }
+
+    // Record the seats a section has, called for every section of every search
+    public void observe(SearchWindow window, Section section) {
+        long now = System.currentTimeMillis();
+        int seats = section.getCurrentCapacity();
+        Tracked previous = sections.get(section.getCrn());
+
+        long lastChanged = previous == null ? 0 : previous.lastChanged;
+        if (previous != null && previous.seats != seats) {
+            lastChanged = now;
+            changes.incrementAndGet();
+        }
+        sections.put(section.getCrn(), new Tracked(window, seats, lastChanged));
+    }
+
+    // Windows holding at least one section that is near capacity or changed recently
+    public List<SearchWindow> volatileWindows() {
+        long now = System.currentTimeMillis();
+        Set<SearchWindow> windows = new LinkedHashSet<>();
+        for (Tracked tracked : sections.values()) {
+            if (tracked.seats <= nearFullSeats || now - tracked.lastChanged < recentChangeMillis) {
+                windows.add(tracked.window);
+            }
+        }
+        return new ArrayList<>(windows);
+    }
+
+    // Adapt the wait before the next poll to whether the last one saw any seat changes
+    public long finishRound() {
+        if (changes.getAndSet(0) > 0) {
+            intervalMillis = Math.max(minIntervalMillis, intervalMillis / 2);
+        } else {
+            intervalMillis = Math.min(maxIntervalMillis, intervalMillis * 2);
+        }
+        return intervalMillis;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    // The static catalog data (titles, instructors, meeting times) is only refreshed by full crawls
+    public boolean fullRefreshDue() {
+        return System.currentTimeMillis() - lastFullRefresh >= fullRefreshMillis;
+    }
+
+    public void fullRefreshDone() {
+        lastFullRefresh = System.currentTimeMillis();
+        changes.set(0);
+    }
+
+    public int size() {
+        return sections.size();
+    }
+}
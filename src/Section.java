@@ -0,0 +1,66 @@
+// One class section as parsed from the searchResults data array
+public class Section {
+    private final String term;
+    private final int crn;
+    private final String subject;
+    private final int courseNumber;
+    private final String subjectCourse;
+    private final int creditHours;
+    private final String title;
+    private final int capacity;
+    private final int currentCapacity;
+    private final boolean capacityFull;
+    private final String instructor;
+    private final String schedule;
+    private final byte[] meetingTimes;
+    private final String campus;
+
+    public Section(String term, int crn, String subject, int courseNumber, String subjectCourse, int creditHours,
+                   String title, int capacity, int currentCapacity, boolean capacityFull, String instructor,
+                   String schedule, byte[] meetingTimes, String campus) {
+        this.term = term;
+        this.crn = crn;
+        this.subject = subject;
+        this.courseNumber = courseNumber;
+        this.subjectCourse = subjectCourse;
+        this.creditHours = creditHours;
+        this.title = title;
+        this.capacity = capacity;
+        this.currentCapacity = currentCapacity;
+        this.capacityFull = capacityFull;
+        this.instructor = instructor;
+        this.schedule = schedule;
+        this.meetingTimes = meetingTimes;
+        this.campus = campus;
+    }
+
+    public String getTerm() { return term; }
+
+    public int getCrn() { return crn; }
+
+    public String getSubject() { return subject; }
+
+    public int getCourseNumber() { return courseNumber; }
+
+    public String getSubjectCourse() { return subjectCourse; }
+
+    public int getCreditHours() { return creditHours; }
+
+    public String getTitle() { return title; }
+
+    public int getCapacity() { return capacity; }
+
+    // Seats still available (named after the currentCapacity column)
+    public int getCurrentCapacity() { return currentCapacity; }
+
+    public boolean isCapacityFull() { return capacityFull; }
+
+    public String getInstructor() { return instructor; }
+
+    public String getSchedule() { return schedule; }
+
+    // Packed meeting times, see MeetingTimes
+    public byte[] getMeetingTimes() { return meetingTimes; }
+
+    public String getCampus() { return campus; }
+}
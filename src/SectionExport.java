@@ -0,0 +1,284 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every section of a term in a column oriented file, so the website and API can load a term by
+// memory mapping one file instead of querying the database.
+//
+// Strings are stored once in a dictionary and the string columns hold their index in it. Rows are
+// sorted by CRN. File format (big endian, every int column starts 4 byte aligned):
+//
+//   header      int magic, int version, int row count, int dictionary size, int term (dictionary id),
+//               int dictionary byte length, int meeting time byte length
+//   columns     one int[rows] per column in COLUMNS order, -1 for a missing string
+//   meetings    int[rows + 1] offsets into the meeting time bytes
+//   dictionary  int[size + 1] offsets into the dictionary bytes
+//   bytes       the UTF-8 dictionary strings, then the packed meeting times (see MeetingTimes)
+public class SectionExport {
+    public static final int MAGIC = 0x53454354; // "SECT"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 7 * 4;
+
+    static final int CRN = 0;
+    static final int COURSE_NUMBER = 1;
+    static final int CREDIT_HOURS = 2;
+    static final int CAPACITY = 3;
+    static final int CURRENT_CAPACITY = 4;
+    static final int SUBJECT = 5;
+    static final int TITLE = 6;
+    static final int INSTRUCTOR = 7;
+    static final int SCHEDULE = 8;
+    static final int CAMPUS = 9;
+    static final int SUBJECT_COURSE = 10;
+    static final int COLUMNS = 11;
+
+    private final Map<Integer, Section> sections = new ConcurrentHashMap<>();
+
+    // Sections are keyed by CRN, so overlapping search windows don't add a section twice
+    public void add(Section section) {
+        sections.put(section.getCrn(), section);
+    }
+
+    public int size() {
+        return sections.size();
+    }
+
+    // Write every section added so far, returns the number of sections written
+    public int write(File file, String termCode) throws IOException {
+        List<Section> rows = new ArrayList<>(new TreeMap<>(sections).values());
+
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        int termId = intern(termCode, strings, ids);
+        int[][] columns = new int[COLUMNS][rows.size()];
+        int meetingBytes = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Section section = rows.get(i);
+            columns[CRN][i] = section.getCrn();
+            columns[COURSE_NUMBER][i] = section.getCourseNumber();
+            columns[CREDIT_HOURS][i] = section.getCreditHours();
+            columns[CAPACITY][i] = section.getCapacity();
+            columns[CURRENT_CAPACITY][i] = section.getCurrentCapacity();
+            columns[SUBJECT][i] = intern(section.getSubject(), strings, ids);
+            columns[TITLE][i] = intern(section.getTitle(), strings, ids);
+            columns[INSTRUCTOR][i] = intern(section.getInstructor(), strings, ids);
+            columns[SCHEDULE][i] = intern(section.getSchedule(), strings, ids);
+            columns[CAMPUS][i] = intern(section.getCampus(), strings, ids);
+            columns[SUBJECT_COURSE][i] = intern(section.getSubjectCourse(), strings, ids);
+            meetingBytes += meetingTimesOf(section).length;
+        }
+
+        byte[][] encoded = new byte[strings.size()][];
+        int dictionaryBytes = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            dictionaryBytes += encoded[i].length;
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can't create directory " + parent);
+        }
+
+        // Write to a temporary file first so readers never map a half written export
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows.size());
+            out.writeInt(strings.size());
+            out.writeInt(termId);
+            out.writeInt(dictionaryBytes);
+            out.writeInt(meetingBytes);
+            for (int[] column : columns) {
+                for (int value : column) {
+                    out.writeInt(value);
+                }
+            }
+
+            int offset = 0;
+            for (Section section : rows) {
+                out.writeInt(offset);
+                offset += meetingTimesOf(section).length;
+            }
+            out.writeInt(offset);
+
+            offset = 0;
+            for (byte[] string : encoded) {
+                out.writeInt(offset);
+                offset += string.length;
+            }
+            out.writeInt(offset);
+
+            for (byte[] string : encoded) {
+                out.write(string);
+            }
+            for (Section section : rows) {
+                out.write(meetingTimesOf(section));
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Can't replace " + file);
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Can't rename " + temp + " to " + file);
+        }
+        return rows.size();
+    }
+
+    private static int intern(String value, List<String> strings, Map<String, Integer> ids) {
+        if (value == null) { return -1; }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    private static byte[] meetingTimesOf(Section section) {
+        return section.getMeetingTimes() == null ? new byte[0] : section.getMeetingTimes();
+    }
+
+    // Memory map an export written by write()
+    public static Columns open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a section export this version can read");
+            }
+            return new Columns(buffer);
+        }
+    }
+
+    // Read access to a mapped export. Numbers are read straight from the mapping, strings are
+    // decoded the first time they are asked for and shared after that.
+    public static class Columns {
+        private final ByteBuffer buffer;
+        private final int rows;
+        private final String[] dictionary;
+        private final int termId;
+        private final int meetingOffsets;
+        private final int dictionaryOffsets;
+        private final int dictionaryStart;
+        private final int meetingStart;
+
+        Columns(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            this.rows = buffer.getInt(8);
+            this.dictionary = new String[buffer.getInt(12)];
+            this.termId = buffer.getInt(16);
+            int dictionaryBytes = buffer.getInt(20);
+            int meetingBytes = buffer.getInt(24);
+
+            this.meetingOffsets = HEADER_BYTES + COLUMNS * rows * 4;
+            this.dictionaryOffsets = meetingOffsets + (rows + 1) * 4;
+            this.dictionaryStart = dictionaryOffsets + (dictionary.length + 1) * 4;
+            this.meetingStart = dictionaryStart + dictionaryBytes;
+            if (rows < 0 || (long) meetingStart + meetingBytes != buffer.limit()) {
+                throw new IOException("Section export is truncated or corrupt");
+            }
+        }
+
+        public int size() { return rows; }
+
+        public String getTerm() { return string(termId); }
+
+        public int getCrn(int row) { return column(CRN, row); }
+
+        public int getCourseNumber(int row) { return column(COURSE_NUMBER, row); }
+
+        public int getCreditHours(int row) { return column(CREDIT_HOURS, row); }
+
+        public int getCapacity(int row) { return column(CAPACITY, row); }
+
+        public int getCurrentCapacity(int row) { return column(CURRENT_CAPACITY, row); }
+
+        public boolean isCapacityFull(int row) { return getCurrentCapacity(row) <= 0; }
+
+        public String getSubject(int row) { return string(column(SUBJECT, row)); }
+
+        public String getTitle(int row) { return string(column(TITLE, row)); }
+
+        public String getInstructor(int row) { return string(column(INSTRUCTOR, row)); }
+
+        public String getSchedule(int row) { return string(column(SCHEDULE, row)); }
+
+        public String getCampus(int row) { return string(column(CAMPUS, row)); }
+
+        public String getSubjectCourse(int row) { return string(column(SUBJECT_COURSE, row)); }
+
+        public byte[] getMeetingTimes(int row) {
+            column(CRN, row);
+            int start = buffer.getInt(meetingOffsets + row * 4);
+            int end = buffer.getInt(meetingOffsets + (row + 1) * 4);
+            return bytes(meetingStart + start, end - start);
+        }
+
+        // Row of a CRN, or -1 if the term doesn't have it
+        public int indexOf(int crn) {
+            int low = 0;
+            int high = rows - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = getCrn(mid);
+                if (value < crn) {
+                    low = mid + 1;
+                } else if (value > crn) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        public Section get(int row) {
+            return new Section(getTerm(), getCrn(row), getSubject(row), getCourseNumber(row),
+                    getSubjectCourse(row), getCreditHours(row), getTitle(row), getCapacity(row),
+                    getCurrentCapacity(row), isCapacityFull(row), getInstructor(row), getSchedule(row),
+                    getMeetingTimes(row), getCampus(row));
+        }
+
+        private int column(int column, int row) {
+            if (row < 0 || row >= rows) { throw new IndexOutOfBoundsException("Row " + row + " of " + rows); }
+            return buffer.getInt(HEADER_BYTES + (column * rows + row) * 4);
+        }
+
+        private String string(int id) {
+            if (id < 0) { return null; }
+            String value = dictionary[id];
+            if (value == null) {
+                int start = buffer.getInt(dictionaryOffsets + id * 4);
+                int end = buffer.getInt(dictionaryOffsets + (id + 1) * 4);
+                value = new String(bytes(dictionaryStart + start, end - start), StandardCharsets.UTF_8);
+                dictionary[id] = value;
+            }
+            return value;
+        }
+
+        private byte[] bytes(int position, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(position);
+            slice.get(bytes);
+            return bytes;
+        }
+    }
+}
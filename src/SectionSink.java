@@ -0,0 +1,4 @@
+// Receives each section as it is parsed
+public interface SectionSink {
+    void accept(Section section) throws Exception;
+}
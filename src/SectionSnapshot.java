@@ -0,0 +1,102 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// What the database currently holds for each term and CRN, kept as a 64 bit hash of the columns the
+// upsert can change (capacity, currentCapacity, capacityFull, instructor, schedule, meetingTimes). Sections whose
+// hash matches are already up to date in the database and don't need to be written again.
+public class SectionSnapshot {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // term -> crn -> hash
+    private final Map<String, Map<Integer, Long>> hashes = new ConcurrentHashMap<>();
+
+    // Warm the snapshot from what is already in the database
+    public int load(Connection conn) throws SQLException {
+        String query = "SELECT term, crn, capacity, currentCapacity, capacityFull, instructor, schedule, meetingTimes " +
+                "FROM Classes";
+        int loaded = 0;
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                forTerm(rs.getString(1)).put(rs.getInt(2), hash(rs.getInt(3), rs.getInt(4), rs.getBoolean(5),
+                        rs.getString(6), rs.getString(7), rs.getBytes(8)));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    // Record the section's current values, returns false if they are the same as last time
+    public boolean update(Section section) {
+        long hash = hash(section.getCapacity(), section.getCurrentCapacity(), section.isCapacityFull(),
+                section.getInstructor(), section.getSchedule(), section.getMeetingTimes());
+        Long previous = forTerm(section.getTerm()).put(section.getCrn(), hash);
+        return previous == null || previous != hash;
+    }
+
+    // Number of classes of the term in the database, 0 for a term that was never scraped
+    public int size(String term) {
+        Map<Integer, Long> classes = hashes.get(term);
+        return classes == null ? 0 : classes.size();
+    }
+
+    // Forget sections that failed to write so they are sent again next time
+    public void forget(Collection<Section> sections) {
+        for (Section section : sections) {
+            forTerm(section.getTerm()).remove(section.getCrn());
+        }
+    }
+
+    private Map<Integer, Long> forTerm(String term) {
+        return hashes.computeIfAbsent(term, t -> new ConcurrentHashMap<>());
+    }
+
+    // FNV-1a over the fields, strings and byte arrays are mixed in one byte at a time with a marker for null
+    static long hash(int capacity, int currentCapacity, boolean capacityFull, String instructor, String schedule,
+                     byte[] meetingTimes) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, capacity);
+        hash = mix(hash, currentCapacity);
+        hash = mix(hash, capacityFull ? 1 : 0);
+        hash = mix(hash, instructor);
+        hash = mix(hash, schedule);
+        hash = mix(hash, meetingTimes);
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, byte[] value) {
+        if (value == null) {
+            return mix(hash, -1);
+        }
+        hash = mix(hash, value.length);
+        for (byte b : value) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1);
+        }
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Pool of warmed up search sessions (term already selected) that worker threads check out per window.
+// A session is recycled after maxUses searches, after any search that failed, or when its health
+// check fails, so one crashed browser only costs the window it was working on.
+public class SessionPool {
+    private static class Session {
+        final SearchClient client;
+        int uses = 0;
+
+        Session(SearchClient client) {
+            this.client = client;
+        }
+    }
+
+    private final Supplier<SearchClient> factory;
+    private final int size;
+    private final int maxUses;
+    private final LinkedBlockingQueue<Session> idle = new LinkedBlockingQueue<>();
+    private int open = 0;
+    private boolean closed = false;
+
+    public SessionPool(Supplier<SearchClient> factory, int size, int maxUses) {
+        this.factory = factory;
+        this.size = Math.max(1, size);
+        this.maxUses = Math.max(1, maxUses);
+    }
+
+    // Open every session up front so the first searches don't pay for browser start and term selection
+    public void warmUp() {
+        List<Session> warmed = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            try {
+                warmed.add(borrow());
+            } catch (Exception e) {
+                System.out.println("Error warming up search session: " + e);
+            }
+        }
+        idle.addAll(warmed);
+    }
+
+    // Run one search task on a session from the pool
+    public <T> T withSession(SessionTask<T> task) throws Exception {
+        Session session = borrow();
+        boolean failed = true;
+        try {
+            T result = task.run(session.client);
+            failed = false;
+            return result;
+        } finally {
+            release(session, failed);
+        }
+    }
+
+    public interface SessionTask<T> {
+        T run(SearchClient client) throws Exception;
+    }
+
+    // Take an idle session, open a new one if the pool isn't full, otherwise wait for one
+    private Session borrow() throws Exception {
+        while (true) {
+            Session session = idle.poll();
+            if (session == null) {
+                if (reserve()) {
+                    try {
+                        Session created = new Session(factory.get());
+                        created.client.warmUp();
+                        return created;
+                    } catch (Exception e) {
+                        synchronized (this) { open--; }
+                        throw e;
+                    }
+                }
+                // Check again every second in case a discarded session freed up room for a new one
+                session = idle.poll(1, TimeUnit.SECONDS);
+                if (session == null) { continue; }
+            }
+
+            if (session.client.isHealthy()) { return session; }
+            System.out.println("Search session failed health check, replacing it");
+            discard(session);
+        }
+    }
+
+    private synchronized boolean reserve() {
+        if (closed) { throw new IllegalStateException("Session pool is closed"); }
+        if (open >= size) { return false; }
+        open++;
+        return true;
+    }
+
+    private void release(Session session, boolean failed) {
+        session.uses++;
+        if (failed || session.uses >= maxUses || closed) {
+            discard(session);
+        } else {
+            idle.add(session);
+        }
+    }
+
+    private void discard(Session session) {
+        try {
+            session.client.close();
+        } catch (Exception e) {
+            System.out.println("Error closing search session: " + e);
+        }
+        synchronized (this) { open--; }
+    }
+
+    // Close every session, sessions still checked out are closed when they are returned
+    public void close() {
+        synchronized (this) { closed = true; }
+        Session session;
+        while ((session = idle.poll()) != null) {
+            discard(session);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throughput and latency of one pipeline stage, plus the depth of the queue feeding it
+public class StageStats {
+    private final String name;
+    private final BlockingQueue<?> queue;
+    private final LongAdder items = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong peakQueueDepth = new AtomicLong();
+
+    // queue is null for the first stage, which is fed by the caller
+    public StageStats(String name, BlockingQueue<?> queue) {
+        this.name = name;
+        this.queue = queue;
+    }
+
+    public void record(long nanos) {
+        items.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public void error() {
+        errors.increment();
+    }
+
+    // Called after putting an item on the stage's queue
+    public void queued() {
+        if (queue != null) {
+            peakQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        }
+    }
+
+    public String getName() { return name; }
+
+    public long getItems() { return items.sum(); }
+
+    public long getErrors() { return errors.sum(); }
+
+    public long getTotalNanos() { return totalNanos.sum(); }
+
+    public double getAverageMillis() {
+        long count = items.sum();
+        return count == 0 ? 0 : totalNanos.sum() / (double) count / 1e6;
+    }
+
+    public double getMaxMillis() { return maxNanos.get() / 1e6; }
+
+    public int getQueueDepth() { return queue == null ? 0 : queue.size(); }
+
+    public long getPeakQueueDepth() { return peakQueueDepth.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("%-6s items=%d errors=%d avg=%.2fms max=%.2fms queue=%d peakQueue=%d",
+                name, getItems(), getErrors(), getAverageMillis(), getMaxMillis(), getQueueDepth(),
+                getPeakQueueDepth());
+    }
+}
@@ -0,0 +1,21 @@
+// A registration term, e.g. code 202036 "2020 Fall"
+public class Term {
+    private final String code;
+    private final String description;
+
+    public Term(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    // Code the registration system and the Classes table use for the term
+    public String getCode() { return code; }
+
+    // Name shown in the term selection dropdown
+    public String getDescription() { return description; }
+
+    @Override
+    public String toString() {
+        return description + " (" + code + ")";
+    }
+}
@@ -0,0 +1,53 @@
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+// Terms offered by the registration system, used to turn the term codes to scrape into terms
+public class TermCatalog {
+    // Used when no terms are configured
+    public static final Term DEFAULT_TERM = new Term("202036", "2020 Fall");
+
+    private final Map<String, Term> terms = new HashMap<>();
+
+    // Load the catalog from the term selection dropdown's data
+    public static TermCatalog fetch(HttpSearchClient client) {
+        TermCatalog catalog = new TermCatalog();
+        catalog.terms.put(DEFAULT_TERM.getCode(), DEFAULT_TERM);
+        try (Reader data = client.fetchTerms()) {
+            for (Object o : (JSONArray) new JSONParser().parse(data)) {
+                JSONObject term = (JSONObject) o;
+                String code = (String) term.get("code");
+                catalog.terms.put(code, new Term(code, (String) term.get("description")));
+            }
+        } catch (Exception e) {
+            System.out.println("Error loading term catalog: " + e);
+        }
+        return catalog;
+    }
+
+    // Look up a comma separated list of term codes, e.g. "202036,202103"
+    public List<Term> select(String codes) {
+        List<Term> selected = new ArrayList<>();
+        if (codes == null || codes.trim().isEmpty()) {
+            selected.add(DEFAULT_TERM);
+            return selected;
+        }
+        for (String code : codes.split(",")) {
+            code = code.trim();
+            if (code.isEmpty()) { continue; }
+            Term term = terms.get(code);
+            if (term == null) {
+                System.out.println("Term " + code + " is not in the term catalog, using the code as its name");
+                term = new Term(code, code);
+            }
+            selected.add(term);
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,160 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Learns how to split the course number range into search windows. Each search reports how many
+// sections the window matched (totalCount), and after a crawl windows over the target size are
+// split and neighbouring windows that fit under it together are merged. The learned windows are
+// saved per term so the next run starts from them instead of fixed 100 number windows.
+//
+// File format: one window per line, "start end sections", sections is -1 when unknown.
+public class WindowPlanner {
+    // Default course numbers 0800-3999 include all undergrad classes (5000+ are grad classes)
+    static final int FIRST_COURSE_NUMBER = 800;
+    static final int LAST_COURSE_NUMBER = 4000;
+    static final int DEFAULT_WINDOW_SIZE = 100;
+
+    private final File file;
+    private final String subject;
+    private final int targetSections;
+    private final List<SearchWindow> windows = new ArrayList<>();
+    private final Map<SearchWindow, Long> counts = new ConcurrentHashMap<>();
+
+    public WindowPlanner(File file, String subject, int targetSections) {
+        this.file = file;
+        this.subject = subject;
+        this.targetSections = Math.max(1, targetSections);
+    }
+
+    // Windows to search this run, the saved ones if there are any
+    public synchronized List<SearchWindow> load() {
+        windows.clear();
+        counts.clear();
+        if (file.exists()) {
+            try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] fields = line.trim().split("\\s+");
+                    if (fields.length < 3 || fields[0].startsWith("#")) { continue; }
+                    SearchWindow window = new SearchWindow(subject, Integer.parseInt(fields[0]),
+                            Integer.parseInt(fields[1]));
+                    windows.add(window);
+                    counts.put(window, Long.parseLong(fields[2]));
+                }
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("Error reading " + file + ", using default windows: " + e);
+                windows.clear();
+                counts.clear();
+            }
+        }
+
+        if (windows.isEmpty()) {
+            windows.addAll(SearchWindow.split(subject, FIRST_COURSE_NUMBER, LAST_COURSE_NUMBER, DEFAULT_WINDOW_SIZE));
+        }
+        return new ArrayList<>(windows);
+    }
+
+    // Record the totalCount a search reported
+    public void record(SearchWindow window, long totalCount) {
+        if (totalCount >= 0) { counts.put(window, totalCount); }
+    }
+
+    // True if a window matched too many sections to come back in one page
+    public static boolean truncated(SearchResultsParser results) {
+        return results.getTotalCount() > results.getSectionCount();
+    }
+
+    // Split a window in two, used right away when a page came back truncated
+    public List<SearchWindow> halves(SearchWindow window) {
+        int middle = window.getStart() + (window.getEnd() - window.getStart()) / 2;
+        List<SearchWindow> halves = new ArrayList<>();
+        halves.add(new SearchWindow(subject, window.getStart(), middle));
+        halves.add(new SearchWindow(subject, middle, window.getEnd()));
+        return halves;
+    }
+
+    // Search the halves instead of the window from now on
+    public synchronized void replace(SearchWindow window, List<SearchWindow> halves) {
+        int index = windows.indexOf(window);
+        if (index >= 0) {
+            windows.remove(index);
+            windows.addAll(index, halves);
+        }
+        counts.remove(window);
+    }
+
+    // Windows for the next run: oversized ones split, small neighbours merged
+    public synchronized List<SearchWindow> plan(Map<SearchWindow, Long> estimates) {
+        List<SearchWindow> sorted = new ArrayList<>(windows);
+        sorted.sort(Comparator.comparingInt(SearchWindow::getStart));
+
+        List<SearchWindow> split = new ArrayList<>();
+        for (SearchWindow window : sorted) {
+            split(window, counts.getOrDefault(window, -1L), split, estimates);
+        }
+
+        // Windows with an unknown count (the search failed) are left alone
+        List<SearchWindow> merged = new ArrayList<>();
+        SearchWindow current = null;
+        long currentCount = 0;
+        for (SearchWindow window : split) {
+            long count = estimates.get(window);
+            if (current != null && count >= 0 && currentCount >= 0 && currentCount + count <= targetSections &&
+                    current.getEnd() == window.getStart()) {
+                current = new SearchWindow(subject, current.getStart(), window.getEnd());
+                currentCount += count;
+                continue;
+            }
+            if (current != null) {
+                merged.add(current);
+                estimates.put(current, currentCount);
+            }
+            current = window;
+            currentCount = count;
+        }
+        if (current != null) {
+            merged.add(current);
+            estimates.put(current, currentCount);
+        }
+        return merged;
+    }
+
+    // Halve a window until its estimated size fits the target
+    private void split(SearchWindow window, long count, List<SearchWindow> out, Map<SearchWindow, Long> estimates) {
+        if (count > targetSections && window.getEnd() - window.getStart() > 1) {
+            List<SearchWindow> halves = halves(window);
+            split(halves.get(0), count / 2, out, estimates);
+            split(halves.get(1), count - count / 2, out, estimates);
+            return;
+        }
+        out.add(window);
+        estimates.put(window, count);
+    }
+
+    // Save the planned windows for the next run of this term
+    public void save() throws IOException {
+        Map<SearchWindow, Long> estimates = new HashMap<>();
+        List<SearchWindow> planned = plan(estimates);
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Can't create directory " + parent);
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("# start end sections");
+            for (SearchWindow window : planned) {
+                out.println(window.getStart() + " " + window.getEnd() + " " + estimates.get(window));
+            }
+        }
+        System.out.println("Saved " + planned.size() + " windows to " + file);
+    }
+}